@@ -0,0 +1,89 @@
+package benchmark;
+
+import chess.ChessGame;
+import com.google.gson.Gson;
+import dataaccess.DataAccessException;
+import dataaccess.DataAccessOnMemory;
+import model.GameData;
+import org.openjdk.jmh.annotations.*;
+import server.WebSocketServer;
+import service.GameService;
+import service.UserService;
+import websocket.commands.UserGameCommand;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A MAKE_MOVE command through {@link WebSocketServer}, including the
+ * LOAD_GAME and notification fan-out to every player and observer of the
+ * game. Sessions are {@link FakeSession}s, so only server-side work is timed.
+ * Commands run on the calling thread, so each call times the whole command.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class BroadcastBenchmark {
+
+    private static final Gson GSON = new Gson();
+    // 메모리 DAO 는 토큰을 그대로 사용자 이름으로 돌려준다
+    private static final String WHITE = "white";
+    private static final String BLACK = "black";
+
+    @Param({"0", "10", "100"})
+    public int observers;
+
+    private WebSocketServer webSocketServer;
+    private FakeSession white;
+    private FakeSession black;
+    private String[] moveCommands;
+    private int ply;
+
+    @Setup(Level.Trial)
+    public void setUp() throws DataAccessException {
+        DataAccessOnMemory dataAccess = new DataAccessOnMemory();
+        int gameID = dataAccess.createGame(new GameData(0, WHITE, BLACK, "game", new ChessGame(), false));
+        // 명령을 보낸 스레드에서 바로 처리하게 해서, 큐에 넣는 시간이 아니라 처리 전체를 잰다
+        webSocketServer = new WebSocketServer(new GameService(dataAccess), new UserService(dataAccess),
+                new SameThreadExecutor());
+
+        white = connect(WHITE, gameID);
+        black = connect(BLACK, gameID);
+        for (int i = 0; i < observers; i++) {
+            connect("observer" + i, gameID);
+        }
+        if (white.messagesSent() == 0) {
+            throw new IllegalStateException("CONNECT did not send LOAD_GAME");
+        }
+
+        KnightShuffle shuffle = new KnightShuffle();
+        moveCommands = new String[4];
+        for (int i = 0; i < moveCommands.length; i++) {
+            String player = i % 2 == 0 ? WHITE : BLACK;
+            moveCommands[i] = GSON.toJson(new UserGameCommand(
+                    UserGameCommand.CommandType.MAKE_MOVE, player, gameID, shuffle.next()));
+        }
+    }
+
+    private FakeSession connect(String authToken, int gameID) {
+        FakeSession session = new FakeSession();
+        webSocketServer.connectionConfirmed(session.session());
+        webSocketServer.receiveMessage(session.session(),
+                GSON.toJson(new UserGameCommand(UserGameCommand.CommandType.CONNECT, authToken, gameID)));
+        return session;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        webSocketServer.close();
+    }
+
+    @Benchmark
+    public void makeMove() {
+        FakeSession mover = ply % 2 == 0 ? white : black;
+        webSocketServer.receiveMessage(mover.session(), moveCommands[ply]);
+        ply = (ply + 1) % moveCommands.length;
+    }
+}
@@ -0,0 +1,61 @@
+package benchmark;
+
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.Session;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An open websocket {@link Session} with no network behind it. Text sent to
+ * it is only counted, so a benchmark measures the server side of a send.
+ */
+final class FakeSession {
+
+    // 서버의 게임 일꾼 스레드에서도 세므로 원자적으로 올린다
+    private final AtomicLong messagesSent = new AtomicLong();
+    private final Session session;
+
+    FakeSession() {
+        RemoteEndpoint remote = (RemoteEndpoint) Proxy.newProxyInstance(
+                RemoteEndpoint.class.getClassLoader(), new Class<?>[]{RemoteEndpoint.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("sendString")) {
+                        messagesSent.incrementAndGet();
+                    }
+                    return defaultValue(method.getReturnType());
+                });
+        session = (Session) Proxy.newProxyInstance(
+                Session.class.getClassLoader(), new Class<?>[]{Session.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getRemote" -> remote;
+                    case "isOpen" -> true;
+                    // 서버가 세션을 맵 키로 쓰니 동일성 기준으로 비교한다
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> "FakeSession@" + Integer.toHexString(System.identityHashCode(proxy));
+                    default -> defaultValue(method.getReturnType());
+                });
+    }
+
+    Session session() {
+        return session;
+    }
+
+    long messagesSent() {
+        return messagesSent.get();
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,76 @@
+package benchmark;
+
+import chess.ChessGame;
+import dataaccess.DataAccessException;
+import dataaccess.DataAccessOnMemory;
+import model.AuthData;
+import model.GameData;
+import org.openjdk.jmh.annotations.*;
+import service.GameService;
+import service.ListGamesRequest;
+import service.ListGamesResult;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link GameService} request paths on {@link DataAccessOnMemory}, so the
+ * numbers cover the service and chess code without a database.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameServiceBenchmark {
+
+    private static final String AUTH_TOKEN = "benchmark-token";
+
+    /**
+     * One game between two seated players.
+     */
+    @State(Scope.Thread)
+    public static class OneGame {
+        GameService gameService;
+        int gameID;
+        KnightShuffle moves;
+
+        @Setup(Level.Trial)
+        public void setUp() throws DataAccessException {
+            DataAccessOnMemory dataAccess = new DataAccessOnMemory();
+            gameID = dataAccess.createGame(new GameData(0, "white", "black", "game", new ChessGame(), false));
+            gameService = new GameService(dataAccess);
+            moves = new KnightShuffle();
+        }
+    }
+
+    /**
+     * A logged in user and {@code gameCount} stored games.
+     */
+    @State(Scope.Thread)
+    public static class ManyGames {
+        @Param({"10", "100", "1000"})
+        public int gameCount;
+
+        GameService gameService;
+
+        @Setup(Level.Trial)
+        public void setUp() throws DataAccessException {
+            DataAccessOnMemory dataAccess = new DataAccessOnMemory();
+            dataAccess.createAuth(new AuthData(AUTH_TOKEN, "white"));
+            for (int i = 0; i < gameCount; i++) {
+                dataAccess.createGame(new GameData(0, "white", "black", "game" + i, new ChessGame(), false));
+            }
+            gameService = new GameService(dataAccess);
+        }
+    }
+
+    @Benchmark
+    public GameData makeMove(OneGame state) throws Exception {
+        return state.gameService.makeMove(state.gameID, state.moves.next());
+    }
+
+    @Benchmark
+    public ListGamesResult listGames(ManyGames state) throws DataAccessException {
+        return state.gameService.listGames(new ListGamesRequest(AUTH_TOKEN));
+    }
+}
@@ -0,0 +1,26 @@
+package benchmark;
+
+import chess.ChessMove;
+import chess.ChessPosition;
+
+/**
+ * Both sides move their king's knight out and back, so a game can be played
+ * forever from the starting position without running into mate or stalemate.
+ */
+final class KnightShuffle {
+
+    private static final ChessMove[] MOVES = {
+            new ChessMove(ChessPosition.of(1, 7), ChessPosition.of(3, 6), null),
+            new ChessMove(ChessPosition.of(8, 7), ChessPosition.of(6, 6), null),
+            new ChessMove(ChessPosition.of(3, 6), ChessPosition.of(1, 7), null),
+            new ChessMove(ChessPosition.of(6, 6), ChessPosition.of(8, 7), null),
+    };
+
+    private int ply;
+
+    ChessMove next() {
+        ChessMove move = MOVES[ply];
+        ply = (ply + 1) % MOVES.length;
+        return move;
+    }
+}
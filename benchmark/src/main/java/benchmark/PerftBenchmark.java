@@ -0,0 +1,63 @@
+package benchmark;
+
+import chess.ChessGame;
+import chess.Perft;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Move generator throughput, reported as perft nodes per second for each
+ * reference position.
+ * <p>
+ * Run with {@code java -jar benchmark/target/benchmarks.jar PerftBenchmark};
+ * the "nodes" secondary result is the nodes/s figure to compare between builds.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PerftBenchmark {
+
+    @Param({"START", "KIWIPETE", "POSITION_3", "POSITION_4", "POSITION_5", "POSITION_6"})
+    public Perft.ReferencePosition position;
+
+    @Param({"3"})
+    public int depth;
+
+    private ChessGame game;
+    private long expectedNodes;
+
+    /**
+     * Counts searched leaf nodes so JMH reports them per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class NodeCounter {
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            nodes = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        game = position.newGame();
+        expectedNodes = position.expectedNodes(depth);
+    }
+
+    @Benchmark
+    public long perft(NodeCounter counter) {
+        long nodes = Perft.perft(game, depth);
+        if (nodes != expectedNodes) {
+            throw new IllegalStateException(position + " depth " + depth + ": expected "
+                    + expectedNodes + " nodes but counted " + nodes);
+        }
+        counter.nodes += nodes;
+        return nodes;
+    }
+}
@@ -0,0 +1,55 @@
+package benchmark;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Perft;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.*;
+import websocket.messages.LoadGameMessage;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gson encoding of the game state, as the server does for every stored game
+ * and every LOAD_GAME message.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SerializationBenchmark {
+
+    private static final Gson GSON = new Gson();
+
+    @Param({"START", "KIWIPETE"})
+    public Perft.ReferencePosition position;
+
+    private ChessGame game;
+    private String gameJson;
+    private LoadGameMessage loadGameMessage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        game = position.newGame();
+        gameJson = GSON.toJson(game);
+        ChessMove lastMove = game.legalMoves().iterator().next();
+        loadGameMessage = new LoadGameMessage(game, lastMove);
+    }
+
+    @Benchmark
+    public String gameToJson() {
+        return GSON.toJson(game);
+    }
+
+    @Benchmark
+    public ChessGame gameFromJson() {
+        return GSON.fromJson(gameJson, ChessGame.class);
+    }
+
+    @Benchmark
+    public String loadGameMessageToJson() {
+        return GSON.toJson(loadGameMessage);
+    }
+}
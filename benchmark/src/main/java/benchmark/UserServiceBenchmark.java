@@ -0,0 +1,45 @@
+package benchmark;
+
+import dataaccess.DataAccessException;
+import dataaccess.DataAccessOnMemory;
+import model.UserData;
+import org.mindrot.jbcrypt.BCrypt;
+import org.openjdk.jmh.annotations.*;
+import service.LoginRequest;
+import service.LoginResult;
+import service.UserService;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link UserService#login} on {@link DataAccessOnMemory}. The time is almost
+ * all BCrypt, so this tracks the cost of the password hash settings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class UserServiceBenchmark {
+
+    private static final String USERNAME = "user";
+    private static final String PASSWORD = "password";
+
+    private UserService userService;
+    private LoginRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() throws DataAccessException {
+        DataAccessOnMemory dataAccess = new DataAccessOnMemory();
+        // 메모리 DAO 는 비밀번호를 그대로 저장하니 MySQL DAO 처럼 해시해서 넣는다
+        dataAccess.createUser(new UserData(USERNAME, BCrypt.hashpw(PASSWORD, BCrypt.gensalt()), "user@mail.com"));
+        userService = new UserService(dataAccess);
+        request = new LoginRequest(USERNAME, PASSWORD);
+    }
+
+    @Benchmark
+    public LoginResult login() throws DataAccessException {
+        return userService.login(request);
+    }
+}
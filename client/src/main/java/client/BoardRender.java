@@ -61,7 +61,7 @@ public class BoardRender {
                 bgColor = (bgColor.equals(SET_BG_COLOR_DARK_BEIGE)) ? SET_BG_COLOR_BEIGE : SET_BG_COLOR_DARK_BEIGE;
                 int colIndex = (ifWhite) ? col + 1 : 8 - col;
 
-                ChessPosition position = new ChessPosition(rowIndex, colIndex);
+                ChessPosition position = ChessPosition.of(rowIndex, colIndex);
                 ChessPiece piece = board.getPiece(position);
 
                 String squareBgColor = bgColor;
@@ -220,10 +220,12 @@ public class Console {
             this.perspective = "WHITE";
             int gameID = indexToGameID.get(gameIndex);
             this.currentGameID = gameID;
+            // LOAD_GAME 을 GameCodec 형식으로 받는다 (getGame 이 알아서 풀어줌)
             facade.sendGameCommand(new UserGameCommand(
                     UserGameCommand.CommandType.CONNECT,
                     facade.getAuthToken(),
-                    currentGameID
+                    currentGameID,
+                    true
             ));
             observeMode = true;
             System.out.printf(">>> You are now observing the game with index [ %d ]. Game loading ... %n", gameIndex);
@@ -300,7 +302,8 @@ public class Console {
             facade.sendGameCommand(new UserGameCommand(
                     UserGameCommand.CommandType.CONNECT,
                     facade.getAuthToken(),
-                    gameID
+                    gameID,
+                    true
             ));
             joinLatch = new CountDownLatch(1);
             if (!joinLatch.await(5, TimeUnit.SECONDS)) {
@@ -376,10 +379,10 @@ public class Console {
         }
         int startRow = Character.getNumericValue(start.charAt(1));
         int startCol = start.charAt(0) - 'A' + 1;
-        ChessPosition startPosition = new ChessPosition(startRow, startCol);
+        ChessPosition startPosition = ChessPosition.of(startRow, startCol);
         int endRow = Character.getNumericValue(end.charAt(1));
         int endCol = end.charAt(0) - 'A' + 1;
-        ChessPosition endPosition = new ChessPosition(endRow, endCol);
+        ChessPosition endPosition = ChessPosition.of(endRow, endCol);
         PieceType promotionType = null;
         if (argumentsParsed.length == 3) {
             ChessPiece piece = currentGame.getBoard().getPiece(startPosition);
@@ -426,7 +429,7 @@ public class Console {
         }
         int row = Character.getNumericValue(positionString.charAt(1));
         int col = positionString.charAt(0) - 'A' + 1;
-        ChessPosition position = new ChessPosition(row, col);
+        ChessPosition position = ChessPosition.of(row, col);
         ChessPiece piece = currentGame.getBoard().getPiece(position);
         if (piece == null) {
             System.out.println(">>> No piece at the given position.");
@@ -0,0 +1,351 @@
+package dataaccess;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A small bounded pool of JDBC connections.
+ * <p>
+ * At most {@code maxSize} connections are handed out at once; further callers
+ * wait up to {@code connectionTimeoutMillis} and then fail. Closing a borrowed
+ * connection returns it to the pool. Idle connections are reused most recently
+ * returned first, so the ones left at the back age out: a connection idle
+ * longer than {@code idleTimeoutMillis} or older than {@code maxLifetimeMillis}
+ * is closed instead of reused. A connection that sat idle longer than
+ * {@code validationIntervalMillis} is checked with {@link Connection#isValid}
+ * before it is handed out. A connection whose statements failed with a
+ * connection error (SQLState class {@code 08}) is closed when it is returned.
+ * <p>
+ * Waiting borrowers park on a {@link Semaphore} and the idle list is guarded by
+ * a {@link ReentrantLock} that is never held during I/O, so the pool also
+ * bounds database concurrency for virtual threads without pinning them.
+ */
+public final class ConnectionPool implements AutoCloseable {
+
+    /**
+     * Opens a new physical connection.
+     */
+    public interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+
+    /**
+     * Snapshot of the pool's state and counters since it was created.
+     *
+     * @param active      connections currently borrowed
+     * @param idle        connections waiting in the pool
+     * @param waiting     threads waiting for a connection
+     * @param borrowed    total successful borrows
+     * @param created     physical connections opened
+     * @param evicted     physical connections closed for age, idleness or failed validation
+     * @param timeouts    borrows that gave up because the pool stayed full
+     * @param maxWaitMillis longest time a borrow has waited
+     */
+    public record Stats(int active, int idle, int waiting, long borrowed, long created, long evicted,
+                        long timeouts, long maxWaitMillis) {
+    }
+
+    private final ConnectionFactory factory;
+    private final int maxSize;
+    private final long connectionTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long maxLifetimeMillis;
+    private final long validationIntervalMillis;
+
+    // 빌려 줄 수 있는 자리 수. 물리 연결 수가 아니라 동시에 빌려 간 수를 제한한다
+    private final Semaphore permits;
+    // 앞쪽이 가장 최근에 돌아온 연결
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final ReentrantLock idleLock = new ReentrantLock();
+    private volatile boolean closed;
+
+    private final AtomicLong borrowed = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong maxWaitMillis = new AtomicLong();
+
+    public ConnectionPool(ConnectionFactory factory, int maxSize, long connectionTimeoutMillis,
+                          long idleTimeoutMillis, long maxLifetimeMillis, long validationIntervalMillis) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1");
+        }
+        this.factory = factory;
+        this.maxSize = maxSize;
+        this.connectionTimeoutMillis = connectionTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.maxLifetimeMillis = maxLifetimeMillis;
+        this.validationIntervalMillis = validationIntervalMillis;
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    private static final class PooledConnection {
+        final Connection physical;
+        final long createdAt;
+        long returnedAt;
+        // 연결 자체가 망가졌다는 오류를 본 적이 있으면 돌려받을 때 버린다
+        volatile boolean broken;
+
+        PooledConnection(Connection physical, long now) {
+            this.physical = physical;
+            this.createdAt = now;
+            this.returnedAt = now;
+        }
+    }
+
+    /**
+     * Borrows a connection. Close it to give it back.
+     *
+     * @throws SQLException if the pool is closed, stays full for the whole
+     *                      connection timeout, or a new connection cannot be opened
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(connectionTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                timeouts.incrementAndGet();
+                throw new SQLException("Timed out waiting for a database connection (pool size " + maxSize + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        maxWaitMillis.accumulateAndGet(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), Math::max);
+
+        try {
+            PooledConnection pooled = takeIdle();
+            if (pooled == null) {
+                pooled = new PooledConnection(factory.open(), System.currentTimeMillis());
+                created.incrementAndGet();
+            }
+            borrowed.incrementAndGet();
+            return lend(pooled);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * @return current size and counters, for monitoring
+     */
+    public Stats stats() {
+        int idleCount;
+        idleLock.lock();
+        try {
+            idleCount = idle.size();
+        } finally {
+            idleLock.unlock();
+        }
+        return new Stats(maxSize - permits.availablePermits(), idleCount, permits.getQueueLength(),
+                borrowed.get(), created.get(), evicted.get(), timeouts.get(), maxWaitMillis.get());
+    }
+
+    /**
+     * Closes the idle connections and refuses new borrows. Connections still
+     * borrowed are closed when they are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        List<PooledConnection> closing;
+        idleLock.lock();
+        try {
+            closing = new ArrayList<>(idle);
+            idle.clear();
+        } finally {
+            idleLock.unlock();
+        }
+        for (PooledConnection pooled : closing) {
+            closeQuietly(pooled.physical);
+        }
+    }
+
+    // 오래되었거나 너무 오래 놀던 연결은 버리고, 쓸 만한 것을 하나 꺼낸다
+    private PooledConnection takeIdle() {
+        while (true) {
+            PooledConnection pooled;
+            long now = System.currentTimeMillis();
+            List<PooledConnection> expired;
+            idleLock.lock();
+            try {
+                expired = removeExpired(now);
+                pooled = idle.pollFirst();
+            } finally {
+                idleLock.unlock();
+            }
+            expired.forEach(this::evict);
+            if (pooled == null) {
+                return null;
+            }
+            if (now - pooled.returnedAt < validationIntervalMillis || isValid(pooled.physical)) {
+                return pooled;
+            }
+            evict(pooled);
+        }
+    }
+
+    // idleLock 을 잡은 상태에서 부른다. 뒤쪽이 가장 오래 놀던 연결. 닫는 건 잠금을 푼 뒤에
+    private List<PooledConnection> removeExpired(long now) {
+        List<PooledConnection> expired = new ArrayList<>();
+        Iterator<PooledConnection> oldestFirst = idle.descendingIterator();
+        while (oldestFirst.hasNext()) {
+            PooledConnection pooled = oldestFirst.next();
+            if (!isExpired(pooled, now) && now - pooled.returnedAt <= idleTimeoutMillis) {
+                continue;
+            }
+            oldestFirst.remove();
+            expired.add(pooled);
+        }
+        return expired;
+    }
+
+    private boolean isExpired(PooledConnection pooled, long now) {
+        return now - pooled.createdAt > maxLifetimeMillis;
+    }
+
+    private void giveBack(PooledConnection pooled) {
+        try {
+            long now = System.currentTimeMillis();
+            if (closed || pooled.broken || isExpired(pooled, now) || pooled.physical.isClosed()) {
+                evict(pooled);
+                return;
+            }
+            // 트랜잭션을 쓰다 만 연결이 다음 사용자에게 가지 않게 되돌려 놓는다
+            if (!pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            pooled.returnedAt = now;
+            List<PooledConnection> expired;
+            idleLock.lock();
+            try {
+                idle.addFirst(pooled);
+                expired = removeExpired(now);
+            } finally {
+                idleLock.unlock();
+            }
+            expired.forEach(this::evict);
+        } catch (SQLException e) {
+            evict(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void evict(PooledConnection pooled) {
+        evicted.incrementAndGet();
+        closeQuietly(pooled.physical);
+    }
+
+    private static boolean isValid(Connection connection) {
+        try {
+            return connection.isValid(2);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    // 08 은 연결 오류. 중복 키 같은 보통 오류로는 연결을 버리지 않는다
+    private static boolean isConnectionError(Throwable e) {
+        return e instanceof SQLException sqlException
+                && (sqlException instanceof SQLNonTransientConnectionException
+                || sqlException instanceof SQLRecoverableException
+                || (sqlException.getSQLState() != null && sqlException.getSQLState().startsWith("08")));
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // 버리는 연결이라 실패해도 할 일이 없다
+        }
+    }
+
+    /* close() 를 풀에 돌려주는 것으로 바꾼 Connection 을 만든다 */
+    private Connection lend(PooledConnection pooled) {
+        InvocationHandler handler = new InvocationHandler() {
+            private boolean returned;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close" -> {
+                        if (!returned) {
+                            returned = true;
+                            giveBack(pooled);
+                        }
+                        return null;
+                    }
+                    case "isClosed" -> {
+                        return returned || pooled.physical.isClosed();
+                    }
+                    case "equals" -> {
+                        return proxy == args[0];
+                    }
+                    case "hashCode" -> {
+                        return System.identityHashCode(proxy);
+                    }
+                    case "toString" -> {
+                        return "Pooled" + pooled.physical;
+                    }
+                    default -> {
+                        if (returned) {
+                            throw new SQLException("Connection is closed");
+                        }
+                        Object result = invokeOn(pooled, pooled.physical, method, args);
+                        if (result instanceof Statement statement) {
+                            return watch(pooled, (Connection) proxy, statement, method.getReturnType());
+                        }
+                        return result;
+                    }
+                }
+            }
+        };
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, handler);
+    }
+
+    /* 실제 문장을 감싸서, 연결 오류가 나면 그 연결을 망가진 것으로 표시한다 */
+    private static Object watch(PooledConnection pooled, Connection connection, Statement statement, Class<?> type) {
+        return Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    // 빌려 간 쪽이 실제 연결을 꺼내 풀 밖에서 쓰지 않게 한다
+                    case "getConnection" -> connection;
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> invokeOn(pooled, statement, method, args);
+                });
+    }
+
+    private static Object invokeOn(PooledConnection pooled, Object target, Method method, Object[] args)
+            throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            if (isConnectionError(e.getCause())) {
+                pooled.broken = true;
+            }
+            throw e.getCause();
+        }
+    }
+}
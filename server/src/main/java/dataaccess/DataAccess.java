@@ -1,5 +1,6 @@
 package dataaccess;
 
+import chess.ChessMove;
 import model.AuthData;
 import model.GameData;
 import model.UserData;
@@ -22,6 +23,8 @@ public interface DataAccess {
     GameData getGame(int gameID) throws DataAccessException;
     Collection<GameData> listGames() throws DataAccessException;
     void updateGame(GameData game) throws DataAccessException;
+    // 방금 둔 수 하나만 기록한다. game 은 그 수를 둔 뒤의 상태 (플레이어는 그대로)
+    void recordMove(GameData game, ChessMove move) throws DataAccessException;
 
     String lookupUsernameWithAuth(String authToken) throws DataAccessException;
 
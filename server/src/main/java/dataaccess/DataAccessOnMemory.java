@@ -1,5 +1,6 @@
 package dataaccess;
 
+import chess.ChessMove;
 import model.AuthData;
 import model.GameData;
 import model.UserData;
@@ -85,6 +86,11 @@ public class DataAccessOnMemory implements DataAccess {
         gameData.put(game.gameID(), game);
     }
 
+    @Override
+    public void recordMove(GameData game, ChessMove move) throws DataAccessException {
+        updateGame(game);
+    }
+
     public String lookupUsernameWithAuth(String authToken) throws DataAccessException {
         return  authToken;
     }
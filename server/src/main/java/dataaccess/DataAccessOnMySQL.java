@@ -1,19 +1,28 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.ChessMove;
+import chess.GameCodec;
+import chess.InvalidMoveException;
 import model.AuthData;
 import model.GameData;
 import model.UserData;
-import org.mindrot.jbcrypt.BCrypt;
 
 import com.google.gson.Gson;
 
 import java.sql.*;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class DataAccessOnMySQL implements DataAccess {
+    // 몇 수마다 games 의 state_bin 스냅샷을 새로 쓸지. 그 사이의 수는 game_moves 에서 다시 둔다
+    static final int SNAPSHOT_INTERVAL = 16;
+
     private final Gson gson = new Gson();
+    private final PasswordHasher passwordHasher = PasswordHasher.shared();
 
     public DataAccessOnMySQL() throws DataAccessException {
 
@@ -25,19 +34,21 @@ public class DataAccessOnMySQL implements DataAccess {
              var statement = connection.createStatement()) {
             // 1) 외래 키 제약 해제
             statement.execute("SET FOREIGN_KEY_CHECKS = 0");
-
-            // 2) DELETE (TRUNCATE 대신)
-            statement.executeUpdate("DELETE FROM tokens");
-            statement.executeUpdate("DELETE FROM games");
-            statement.executeUpdate("DELETE FROM users");
-
-            // 3) AUTO_INCREMENT(자동 증가) 리셋
-            statement.executeUpdate("ALTER TABLE tokens AUTO_INCREMENT = 1");
-            statement.executeUpdate("ALTER TABLE games AUTO_INCREMENT = 1");
-            statement.executeUpdate("ALTER TABLE users AUTO_INCREMENT = 1");
-
-            // 4) 외래 키 제약 복원
-            statement.execute("SET FOREIGN_KEY_CHECKS = 1");
+            try {
+                // 2) DELETE (TRUNCATE 대신)
+                statement.executeUpdate("DELETE FROM tokens");
+                statement.executeUpdate("DELETE FROM game_moves");
+                statement.executeUpdate("DELETE FROM games");
+                statement.executeUpdate("DELETE FROM users");
+
+                // 3) AUTO_INCREMENT(자동 증가) 리셋
+                statement.executeUpdate("ALTER TABLE tokens AUTO_INCREMENT = 1");
+                statement.executeUpdate("ALTER TABLE games AUTO_INCREMENT = 1");
+                statement.executeUpdate("ALTER TABLE users AUTO_INCREMENT = 1");
+            } finally {
+                // 4) 외래 키 제약 복원. 연결은 풀로 돌아가 다른 요청이 쓰므로 중간에 실패해도 꼭 되돌린다
+                statement.execute("SET FOREIGN_KEY_CHECKS = 1");
+            }
         } catch (SQLException e) {
             throw new DataAccessException("Failed to clear data on MySQL");
         }
@@ -46,7 +57,8 @@ public class DataAccessOnMySQL implements DataAccess {
     @Override
     public void createUser(UserData user) throws DataAccessException {
         String statementFormat = "INSERT INTO users(username, hashed_password, email) VALUES (?, ?, ?)";
-        var hashedPassword = BCrypt.hashpw(user.password(), BCrypt.gensalt());
+        // 해싱은 전용 스레드 풀에서. 밀려 있으면 "server busy" 로 바로 실패한다
+        var hashedPassword = passwordHasher.hash(user.password());
         try (var connection = DatabaseManager.getConnection();
              var statement = connection.prepareStatement(statementFormat)) {
             statement.setString(1, user.username());
@@ -78,24 +90,18 @@ public class DataAccessOnMySQL implements DataAccess {
 
     @Override
     public void createAuth(AuthData auth) throws DataAccessException {
-        String findUserIdFormat = "SELECT id FROM users WHERE username = ?";
-        String insertTokenFormat = """
-            INSERT INTO tokens(token, user_id, expires_at) VALUES (?, ?, DATE_ADD(CURRENT_TIMESTAMP, INTERVAL 1 HOUR))
+        // user_id 를 따로 찾지 않고 INSERT ... SELECT 한 번으로 넣는다. 그런 사용자가 없으면 0 행
+        String statementFormat = """
+            INSERT INTO tokens(token, user_id, expires_at)
+            SELECT ?, id, DATE_ADD(CURRENT_TIMESTAMP, INTERVAL 1 HOUR) FROM users WHERE username = ?
         """;
 
         try (var connection = DatabaseManager.getConnection();
-             var findUserIdStatement = connection.prepareStatement(findUserIdFormat);
-             var insertTokenStatement = connection.prepareStatement(insertTokenFormat)) {
-            findUserIdStatement.setString(1, auth.username());
-            try (var response = findUserIdStatement.executeQuery()) {
-                if (!response.next()) {
-                    throw new DataAccessException("unauthorized");
-                }
-                int userID = response.getInt("id");
-
-                insertTokenStatement.setString(1, auth.authToken());
-                insertTokenStatement.setInt(2, userID);
-                insertTokenStatement.executeUpdate();
+             var statement = connection.prepareStatement(statementFormat)) {
+            statement.setString(1, auth.authToken());
+            statement.setString(2, auth.username());
+            if (statement.executeUpdate() == 0) {
+                throw new DataAccessException("unauthorized");
             }
         } catch (SQLException e) {
             throw new DataAccessException("Failed to create auth", e);
@@ -106,32 +112,23 @@ public class DataAccessOnMySQL implements DataAccess {
 
     @Override
     public AuthData getAuth(String authToken) throws DataAccessException {
-        String findUserIdFormat = """
-            SELECT user_id FROM tokens WHERE token = ?
-        """;
-
-        String findUsernameFormat = """
-            SELECT username FROM users WHERE id = ?
+        // 남은 시간을 DB 시계로 계산해서 돌려준다 (JVM 과 DB 의 시간대가 달라도 맞도록)
+        String statementFormat = """
+            SELECT users.username, TIMESTAMPDIFF(SECOND, CURRENT_TIMESTAMP, tokens.expires_at) AS expires_in
+            FROM tokens
+            JOIN users ON tokens.user_id = users.id
+            WHERE tokens.token = ? AND tokens.expires_at > CURRENT_TIMESTAMP
         """;
 
         try (var connection = DatabaseManager.getConnection();
-             var findUserIdStatement = connection.prepareStatement(findUserIdFormat);
-             var findUsernameStatement = connection.prepareStatement(findUsernameFormat)) {
-            findUserIdStatement.setString(1, authToken);
-            try (var response = findUserIdStatement.executeQuery()) {
+             var statement = connection.prepareStatement(statementFormat)) {
+            statement.setString(1, authToken);
+            try (var response = statement.executeQuery()) {
                 if (!response.next()) {
                     return null;
                 }
-                int userID = response.getInt("user_id");
-
-                findUsernameStatement.setInt(1, userID);
-                try (var secondResponse = findUsernameStatement.executeQuery()) {
-                    if (!secondResponse.next()) {
-                        return null;
-                    }
-                    String username = secondResponse.getString("username");
-                    return new AuthData(authToken, username);
-                }
+                Instant expiresAt = Instant.now().plusSeconds(response.getLong("expires_in"));
+                return new AuthData(authToken, response.getString("username"), expiresAt);
             }
         } catch (SQLException e) {
             throw new DataAccessException("Failed to get auth", e);
@@ -157,25 +154,35 @@ public class DataAccessOnMySQL implements DataAccess {
 
     @Override
     public int createGame(GameData game) throws DataAccessException {
+        // 플레이어 id 는 JOIN 으로 같이 찾는다. 이름이 있는데 사용자가 없으면 0 행
         String statementFormat = """
             INSERT INTO games(
                 game_name,
-                state_json,
+                state_bin,
+                snapshot_ply,
                 white_id,
                 black_id,
                 created_at,
                 updated_at
-            ) VALUES (?, ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)
+            )
+            SELECT ?, ?, ?, white.id, black.id, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP
+            FROM (SELECT 1) AS dummy
+            LEFT JOIN users white ON white.username = ?
+            LEFT JOIN users black ON black.username = ?
+            WHERE (? IS NULL OR white.id IS NOT NULL) AND (? IS NULL OR black.id IS NOT NULL)
         """;
         try (var connection = DatabaseManager.getConnection();
              var statement = connection.prepareStatement(statementFormat, Statement.RETURN_GENERATED_KEYS)) {
             statement.setString(1, game.gameName());
-            statement.setString(2, gson.toJson(game.game()));
-            if (game.whiteUsername() != null) {statement.setInt(3, lookupUserId(connection, game.whiteUsername()));}
-            else {statement.setNull(3, Types.INTEGER);}
-            if (game.blackUsername() != null) {statement.setInt(4, lookupUserId(connection, game.blackUsername()));}
-            else {statement.setNull(4, Types.INTEGER);}
-            statement.executeUpdate();
+            statement.setBytes(2, GameCodec.encode(game.game()));
+            statement.setInt(3, game.game().getPly());
+            statement.setString(4, game.whiteUsername());
+            statement.setString(5, game.blackUsername());
+            statement.setString(6, game.whiteUsername());
+            statement.setString(7, game.blackUsername());
+            if (statement.executeUpdate() == 0) {
+                throw new DataAccessException("user not found");
+            }
             try (var response = statement.getGeneratedKeys()) {
                 if (response.next()) {return response.getInt(1);}
                 else {throw new DataAccessException("Failed to create game");}
@@ -191,7 +198,9 @@ public class DataAccessOnMySQL implements DataAccess {
             SELECT
                 game.game_id,
                 game.game_name,
+                game.state_bin,
                 game.state_json,
+                game.snapshot_ply,
                 white.username AS whiteUsername,
                 black.username AS blackUsername,
                 game.is_over
@@ -206,7 +215,8 @@ public class DataAccessOnMySQL implements DataAccess {
             statement.setInt(1, gameID);
             try (var response = statement.executeQuery()) {
                 if (!response.next()) {return null;}
-                ChessGame game = gson.fromJson(response.getString("state_json"), ChessGame.class);
+                ChessGame game = readGameState(response);
+                replayJournal(connection, gameID, response.getInt("snapshot_ply"), game);
                 return new GameData(
                         response.getInt("game_id"),
                         response.getString("whiteUsername"),
@@ -227,7 +237,9 @@ public class DataAccessOnMySQL implements DataAccess {
             SELECT
                 game.game_id,
                 game.game_name,
+                game.state_bin,
                 game.state_json,
+                game.snapshot_ply,
                 white.username AS whiteUsername,
                 black.username AS blackUsername,
                 game.is_over
@@ -236,22 +248,40 @@ public class DataAccessOnMySQL implements DataAccess {
             LEFT JOIN users black ON game.black_id = black.id
             WHERE game.is_over = FALSE
         """;
-        Collection<GameData> games = new ArrayList<>();
-        try (var connection = DatabaseManager.getConnection();
-             var statement = connection.prepareStatement(statementFormat);
-             var response = statement.executeQuery()) {
-            while (response.next()) {
-                ChessGame game = gson.fromJson(response.getString("state_json"), ChessGame.class);
-                games.add(new GameData(
-                        response.getInt("game_id"),
-                        response.getString("whiteUsername"),
-                        response.getString("blackUsername"),
-                        response.getString("game_name"),
-                        game,
-                        response.getBoolean("is_over")
-                ));
+        // 스냅샷 이후에 둔 수들을 게임 전부에 대해 한 번에 가져온다
+        String journalFormat = """
+            SELECT moves.game_id, moves.move
+            FROM game_moves moves
+            JOIN games game ON moves.game_id = game.game_id
+            WHERE game.is_over = FALSE AND moves.ply > game.snapshot_ply
+            ORDER BY moves.game_id, moves.ply
+        """;
+        Map<Integer, GameData> games = new LinkedHashMap<>();
+        try (var connection = DatabaseManager.getConnection()) {
+            try (var statement = connection.prepareStatement(statementFormat);
+                 var response = statement.executeQuery()) {
+                while (response.next()) {
+                    ChessGame game = readGameState(response);
+                    games.put(response.getInt("game_id"), new GameData(
+                            response.getInt("game_id"),
+                            response.getString("whiteUsername"),
+                            response.getString("blackUsername"),
+                            response.getString("game_name"),
+                            game,
+                            response.getBoolean("is_over")
+                    ));
+                }
             }
-            return games;
+            try (var statement = connection.prepareStatement(journalFormat);
+                 var response = statement.executeQuery()) {
+                while (response.next()) {
+                    GameData game = games.get(response.getInt("game_id"));
+                    if (game != null) {
+                        replayMove(game.game(), response.getInt("move"));
+                    }
+                }
+            }
+            return new ArrayList<>(games.values());
         } catch (SQLException e) {
             e.printStackTrace();
             throw new DataAccessException("Failed to list games", e);
@@ -260,36 +290,113 @@ public class DataAccessOnMySQL implements DataAccess {
 
     @Override
     public void updateGame(GameData game) throws DataAccessException {
-        String statementFormat = "UPDATE games SET state_json = ?, white_id = ?, black_id = ?, is_over = ? WHERE game_id = ?";
-        System.out.printf("[UPDATE] gameID=%d, white=%s, black=%s\n",
-                game.gameID(), game.whiteUsername(), game.blackUsername());
+        // state_json 은 예전 행을 읽을 때만 쓰고, 저장할 때는 비운다. 플레이어 id 는 createGame 처럼 JOIN 으로 찾는다
+        String statementFormat = """
+            UPDATE games game
+            LEFT JOIN users white ON white.username = ?
+            LEFT JOIN users black ON black.username = ?
+            SET game.state_bin = ?,
+                game.state_json = NULL,
+                game.snapshot_ply = ?,
+                game.white_id = white.id,
+                game.black_id = black.id,
+                game.is_over = ?
+            WHERE game.game_id = ? AND (? IS NULL OR white.id IS NOT NULL) AND (? IS NULL OR black.id IS NOT NULL)
+        """;
 
         try (var connection = DatabaseManager.getConnection();
              var statement = connection.prepareStatement(statementFormat)) {
-            statement.setString(1, gson.toJson(game.game()));
-            if (game.whiteUsername() != null) {statement.setInt(2, lookupUserId(connection, game.whiteUsername()));}
-            else {statement.setNull(2, Types.INTEGER);}
-            if (game.blackUsername() != null) {statement.setInt(3, lookupUserId(connection, game.blackUsername()));}
-            else {statement.setNull(3, Types.INTEGER);}
-            statement.setBoolean(4, game.isOver());
-            statement.setInt(5, game.gameID());
-            int updatedNumbers = statement.executeUpdate();
-            System.out.println("[UPDATE] affected rows = " + updatedNumbers);
-            if (updatedNumbers == 0) {throw new DataAccessException("game does not exist");}
+            statement.setString(1, game.whiteUsername());
+            statement.setString(2, game.blackUsername());
+            statement.setBytes(3, GameCodec.encode(game.game()));
+            statement.setInt(4, game.game().getPly());
+            statement.setBoolean(5, game.isOver());
+            statement.setInt(6, game.gameID());
+            statement.setString(7, game.whiteUsername());
+            statement.setString(8, game.blackUsername());
+            if (statement.executeUpdate() == 0) {
+                // 실패했을 때만 어느 쪽이 없는지 한 번 더 본다
+                throw new DataAccessException(gameExists(connection, game.gameID()) ? "user not found" : "game does not exist");
+            }
         } catch (SQLException e) {
             throw new DataAccessException("Failed to update game", e);}
     }
 
-    private Integer lookupUserId(Connection connection, String username) throws DataAccessException {
-        if (username == null) {return null;}
-        String statementFormat = "SELECT id FROM users WHERE username = ?";
+    @Override
+    public void recordMove(GameData game, ChessMove move) throws DataAccessException {
+        String insertMoveFormat = "INSERT INTO game_moves(game_id, ply, move, played_at) VALUES (?, ?, ?, CURRENT_TIMESTAMP)";
+        String snapshotFormat = "UPDATE games SET state_bin = ?, state_json = NULL, snapshot_ply = ?, is_over = ? WHERE game_id = ?";
+        int ply = game.game().getPly();
+
+        try (var connection = DatabaseManager.getConnection()) {
+            connection.setAutoCommit(false);
+            try (var insertMoveStatement = connection.prepareStatement(insertMoveFormat)) {
+                insertMoveStatement.setInt(1, game.gameID());
+                insertMoveStatement.setInt(2, ply);
+                insertMoveStatement.setInt(3, GameCodec.encodeMove(move));
+                insertMoveStatement.executeUpdate();
+
+                // 게임이 끝나면 is_over 도 써야 하니 간격과 상관없이 스냅샷
+                if (ply % SNAPSHOT_INTERVAL == 0 || game.isOver()) {
+                    try (var snapshotStatement = connection.prepareStatement(snapshotFormat)) {
+                        snapshotStatement.setBytes(1, GameCodec.encode(game.game()));
+                        snapshotStatement.setInt(2, ply);
+                        snapshotStatement.setBoolean(3, game.isOver());
+                        snapshotStatement.setInt(4, game.gameID());
+                        snapshotStatement.executeUpdate();
+                    }
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLIntegrityConstraintViolationException e) {
+            // (game_id, ply) 가 이미 있거나 게임이 없음
+            throw new DataAccessException("move already recorded", e);
+        } catch (SQLException e) {
+            throw new DataAccessException("Failed to record move", e);
+        }
+    }
+
+    // 스냅샷 이후의 수들을 순서대로 다시 둔다
+    private void replayJournal(Connection connection, int gameID, int snapshotPly, ChessGame game)
+            throws SQLException, DataAccessException {
+        String statementFormat = "SELECT move FROM game_moves WHERE game_id = ? AND ply > ? ORDER BY ply";
         try (var statement = connection.prepareStatement(statementFormat)) {
-            statement.setString(1, username);
+            statement.setInt(1, gameID);
+            statement.setInt(2, snapshotPly);
             try (var response = statement.executeQuery()) {
-                return response.next() ? response.getInt("id") : null;
+                while (response.next()) {
+                    replayMove(game, response.getInt("move"));
+                }
+            }
+        }
+    }
+
+    private void replayMove(ChessGame game, int packedMove) throws DataAccessException {
+        try {
+            game.makeMove(GameCodec.decodeMove(packedMove));
+        } catch (InvalidMoveException | IllegalArgumentException e) {
+            throw new DataAccessException("Corrupt move journal", e);
+        }
+    }
+
+    // state_bin(GameCodec)이 있으면 그걸 쓰고, 없으면 예전 방식의 JSON 을 읽는다
+    private ChessGame readGameState(ResultSet response) throws SQLException {
+        byte[] state = response.getBytes("state_bin");
+        if (state != null) {
+            return GameCodec.decode(state);
+        }
+        return gson.fromJson(response.getString("state_json"), ChessGame.class);
+    }
+
+    private boolean gameExists(Connection connection, int gameID) throws SQLException {
+        try (var statement = connection.prepareStatement("SELECT 1 FROM games WHERE game_id = ?")) {
+            statement.setInt(1, gameID);
+            try (var response = statement.executeQuery()) {
+                return response.next();
             }
-        } catch (SQLException e) {
-            throw new DataAccessException("Failed to lookup user ID", e);
         }
     }
 
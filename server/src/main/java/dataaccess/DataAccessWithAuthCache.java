@@ -0,0 +1,200 @@
+package dataaccess;
+
+import chess.ChessMove;
+import model.AuthData;
+import model.GameData;
+import model.UserData;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers recently checked auth tokens in front of another {@link DataAccess},
+ * so repeated commands from the same session do not each query the tokens table.
+ * <p>
+ * A token is cached until the {@link AuthData#expiresAt()} reported by the
+ * delegate, and never longer than {@code maxAgeMillis}. Tokens the delegate does
+ * not know are not cached. {@link #deleteAuth} and {@link #clearAll} drop the
+ * affected entries both before and after going to the delegate. At most
+ * {@code maxTokens} tokens are kept; expired ones are swept first when the
+ * cache is full. Everything else is passed straight through.
+ */
+public class DataAccessWithAuthCache implements DataAccess {
+
+    public static final int DEFAULT_MAX_TOKENS = 10_000;
+    public static final long DEFAULT_MAX_AGE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private final DataAccess delegate;
+    private final int maxTokens;
+    private final long maxAgeMillis;
+
+    private final Map<String, CachedAuth> tokens = new ConcurrentHashMap<>();
+    // 로그아웃/초기화할 때마다 올린다. DB 를 읽는 사이에 바뀌었으면 읽은 값을 캐시에 넣지 않는다
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public DataAccessWithAuthCache(DataAccess delegate) {
+        this(delegate, DEFAULT_MAX_TOKENS, DEFAULT_MAX_AGE_MILLIS);
+    }
+
+    public DataAccessWithAuthCache(DataAccess delegate, int maxTokens, long maxAgeMillis) {
+        this.delegate = delegate;
+        this.maxTokens = maxTokens;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    private record CachedAuth(AuthData auth, long expiresAtMillis) {
+    }
+
+    @Override
+    public void clearAll() throws DataAccessException {
+        invalidations.incrementAndGet();
+        tokens.clear();
+        try {
+            delegate.clearAll();
+        } finally {
+            invalidations.incrementAndGet();
+            tokens.clear();
+        }
+    }
+
+    @Override
+    public void createUser(UserData user) throws DataAccessException {
+        delegate.createUser(user);
+    }
+
+    @Override
+    public UserData getUser(String username) throws DataAccessException {
+        return delegate.getUser(username);
+    }
+
+    @Override
+    public void createAuth(AuthData auth) throws DataAccessException {
+        delegate.createAuth(auth);
+    }
+
+    @Override
+    public AuthData getAuth(String authToken) throws DataAccessException {
+        if (authToken == null) {
+            return delegate.getAuth(null);
+        }
+        long now = System.currentTimeMillis();
+        CachedAuth cached = tokens.get(authToken);
+        if (cached != null) {
+            if (cached.expiresAtMillis() > now) {
+                hits.incrementAndGet();
+                return cached.auth();
+            }
+            tokens.remove(authToken, cached);
+        }
+
+        misses.incrementAndGet();
+        long generation = invalidations.get();
+        AuthData auth = delegate.getAuth(authToken);
+        if (auth != null) {
+            long expiresAtMillis = now + maxAgeMillis;
+            Instant expiresAt = auth.expiresAt();
+            if (expiresAt != null) {
+                expiresAtMillis = Math.min(expiresAtMillis, expiresAt.toEpochMilli());
+            }
+            if (expiresAtMillis > now) {
+                makeRoom(now);
+                tokens.put(authToken, new CachedAuth(auth, expiresAtMillis));
+                if (invalidations.get() != generation) {
+                    tokens.remove(authToken);
+                }
+            }
+        }
+        return auth;
+    }
+
+    // DELETE 가 끝나기 전에 시작한 getAuth 가 지워질 행을 읽어 캐시에 넣을 수 있으니, 끝난 뒤에 한 번 더 무효화한다
+    @Override
+    public void deleteAuth(String authToken) throws DataAccessException {
+        invalidate(authToken);
+        try {
+            delegate.deleteAuth(authToken);
+        } finally {
+            invalidate(authToken);
+        }
+    }
+
+    @Override
+    public int createGame(GameData game) throws DataAccessException {
+        return delegate.createGame(game);
+    }
+
+    @Override
+    public GameData getGame(int gameID) throws DataAccessException {
+        return delegate.getGame(gameID);
+    }
+
+    @Override
+    public Collection<GameData> listGames() throws DataAccessException {
+        return delegate.listGames();
+    }
+
+    @Override
+    public void updateGame(GameData game) throws DataAccessException {
+        delegate.updateGame(game);
+    }
+
+    @Override
+    public void recordMove(GameData game, ChessMove move) throws DataAccessException {
+        delegate.recordMove(game, move);
+    }
+
+    // DataAccessOnMySQL 과 같이 getAuth 로 찾는다. 그래야 캐시를 탄다
+    @Override
+    public String lookupUsernameWithAuth(String authToken) throws DataAccessException {
+        AuthData auth = getAuth(authToken);
+        return auth != null ? auth.username() : null;
+    }
+
+    /**
+     * @return number of auth lookups answered from the cache
+     */
+    public long hits() {
+        return hits.get();
+    }
+
+    /**
+     * @return number of auth lookups that went to the delegate
+     */
+    public long misses() {
+        return misses.get();
+    }
+
+    /**
+     * @return number of tokens currently cached
+     */
+    public int cachedTokens() {
+        return tokens.size();
+    }
+
+    private void invalidate(String authToken) {
+        invalidations.incrementAndGet();
+        if (authToken != null) {
+            tokens.remove(authToken);
+        }
+    }
+
+    // 꽉 찼으면 만료된 것부터 지우고, 그래도 꽉 찼으면 아무거나 지운다
+    private void makeRoom(long now) {
+        if (tokens.size() < maxTokens) {
+            return;
+        }
+        tokens.values().removeIf(cached -> cached.expiresAtMillis() <= now);
+        Iterator<String> any = tokens.keySet().iterator();
+        while (tokens.size() >= maxTokens && any.hasNext()) {
+            any.next();
+            any.remove();
+        }
+    }
+}
@@ -0,0 +1,452 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.GameCodec;
+import model.AuthData;
+import model.GameData;
+import model.UserData;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps recently used games in memory in front of another {@link DataAccess}.
+ * <p>
+ * Game reads are served from the cache. Game writes update the cache at once
+ * and are handed to a single writer thread through a bounded queue, so they
+ * reach the delegate in the order they were made. When the queue is full,
+ * writers wait, which bounds how far the database can fall behind. A game with
+ * writes still queued is never evicted. Otherwise the least recently used games
+ * are dropped beyond {@code maxGames}, as are games idle longer than
+ * {@code idleMillis} and finished games once they have been written.
+ * <p>
+ * If a write fails, the cached state of that game is written again as a full
+ * snapshot through {@link DataAccess#updateGame}, and its remaining queued writes
+ * are sent as snapshots too, so a move journal never continues past a missing
+ * move. The game is dropped from the cache once its queue is empty.
+ * <p>
+ * Games are kept in {@link GameCodec} form. Every read decodes a fresh
+ * {@link ChessGame}, so callers may modify the games they get. Users and auth
+ * tokens go straight to the delegate. Call {@link #close()} on shutdown to
+ * write out everything still queued.
+ */
+public class DataAccessWithGameCache implements DataAccess, AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(DataAccessWithGameCache.class.getName());
+
+    public static final int DEFAULT_MAX_GAMES = 1024;
+    public static final long DEFAULT_IDLE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    private final DataAccess delegate;
+    private final int maxGames;
+    private final long idleMillis;
+
+    // accessOrder = true 라서 가장 오래 안 쓴 게임이 맨 앞
+    private final LinkedHashMap<Integer, CachedGame> games = new LinkedHashMap<>(16, 0.75f, true);
+    private final BlockingQueue<Runnable> writes = new LinkedBlockingQueue<>();
+    // 큐에 넣을 수 있는 게임 쓰기 수. 자리를 먼저 잡고 games 를 잠근 채 넣어야 캐시와 DB 의 순서가 같다
+    private final Semaphore writeSlots;
+    private final Thread writer;
+    private volatile boolean closed;
+
+    public DataAccessWithGameCache(DataAccess delegate) {
+        this(delegate, DEFAULT_MAX_GAMES, DEFAULT_IDLE_MILLIS, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public DataAccessWithGameCache(DataAccess delegate, int maxGames, long idleMillis, int queueCapacity) {
+        this.delegate = delegate;
+        this.maxGames = maxGames;
+        this.idleMillis = idleMillis;
+        this.writeSlots = new Semaphore(queueCapacity);
+        this.writer = new Thread(this::writeLoop, "game-write-behind");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    // 캐시 한 칸. pendingWrites 가 0 이 아니면 DB 가 아직 옛 상태라서 내보내면 안 된다
+    // writeSeq 는 이 게임의 쓰기마다 하나씩 올리고, snapshotSeq 까지의 쓰기는 복구 스냅샷에 이미 들어갔다
+    private static final class CachedGame {
+        final int gameID;
+        String whiteUsername;
+        String blackUsername;
+        String gameName;
+        byte[] state;
+        int ply;
+        boolean isOver;
+        int pendingWrites;
+        long lastUsed;
+        long writeSeq;
+        long snapshotSeq;
+        boolean broken;
+
+        CachedGame(GameData game) {
+            this.gameID = game.gameID();
+            update(game);
+        }
+
+        void update(GameData game) {
+            whiteUsername = game.whiteUsername();
+            blackUsername = game.blackUsername();
+            gameName = game.gameName();
+            state = GameCodec.encode(game.game());
+            ply = game.game().getPly();
+            isOver = game.isOver();
+        }
+
+        GameData toGameData() {
+            return new GameData(gameID, whiteUsername, blackUsername, gameName, GameCodec.decode(state), isOver);
+        }
+    }
+
+    @Override
+    public void clearAll() throws DataAccessException {
+        flush();
+        synchronized (games) {
+            games.clear();
+        }
+        delegate.clearAll();
+    }
+
+    @Override
+    public void createUser(UserData user) throws DataAccessException {
+        delegate.createUser(user);
+    }
+
+    @Override
+    public UserData getUser(String username) throws DataAccessException {
+        return delegate.getUser(username);
+    }
+
+    @Override
+    public void createAuth(AuthData auth) throws DataAccessException {
+        delegate.createAuth(auth);
+    }
+
+    @Override
+    public AuthData getAuth(String authToken) throws DataAccessException {
+        return delegate.getAuth(authToken);
+    }
+
+    @Override
+    public void deleteAuth(String authToken) throws DataAccessException {
+        delegate.deleteAuth(authToken);
+    }
+
+    // 새 게임 ID 는 DB 가 정하니 생성만은 바로 쓴다
+    @Override
+    public int createGame(GameData game) throws DataAccessException {
+        int gameID = delegate.createGame(game);
+        GameData created = new GameData(gameID, game.whiteUsername(), game.blackUsername(), game.gameName(),
+                game.game(), game.isOver());
+        synchronized (games) {
+            put(new CachedGame(created));
+        }
+        return gameID;
+    }
+
+    @Override
+    public GameData getGame(int gameID) throws DataAccessException {
+        synchronized (games) {
+            CachedGame cached = touch(gameID);
+            if (cached != null) {
+                return cached.toGameData();
+            }
+        }
+        GameData loaded = delegate.getGame(gameID);
+        if (loaded == null) {
+            return null;
+        }
+        synchronized (games) {
+            // DB 를 읽는 사이 다른 스레드가 먼저 넣었으면 그쪽이 더 새 상태
+            CachedGame cached = touch(gameID);
+            if (cached != null) {
+                return cached.toGameData();
+            }
+            put(new CachedGame(loaded));
+        }
+        return loaded;
+    }
+
+    // DB 목록에 캐시에 있는 (더 새로운) 상태를 덮어쓴다
+    @Override
+    public Collection<GameData> listGames() throws DataAccessException {
+        Collection<GameData> stored = delegate.listGames();
+        Collection<GameData> result = new ArrayList<>(stored.size());
+        synchronized (games) {
+            for (GameData game : stored) {
+                CachedGame cached = games.get(game.gameID());
+                result.add(cached != null ? cached.toGameData() : game);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void updateGame(GameData game) throws DataAccessException {
+        loadIfMissing(game.gameID());
+        GameData copy = copyOf(game);
+        acquireWriteSlot();
+        synchronized (games) {
+            CachedGame cached = touch(game.gameID());
+            if (cached == null) {
+                cached = new CachedGame(copy);
+                put(cached);
+            } else {
+                cached.update(copy);
+            }
+            enqueue(cached, copy, null);
+        }
+    }
+
+    @Override
+    public void recordMove(GameData game, ChessMove move) throws DataAccessException {
+        loadIfMissing(game.gameID());
+        GameData copy = copyOf(game);
+        acquireWriteSlot();
+        synchronized (games) {
+            CachedGame cached = touch(game.gameID());
+            if (cached == null) {
+                cached = new CachedGame(copy);
+                put(cached);
+            } else if (cached.ply >= copy.game().getPly()) {
+                writeSlots.release();
+                // DB 의 (game_id, ply) 키와 같은 검사를 여기서 미리 한다
+                throw new DataAccessException("move already recorded");
+            } else {
+                cached.update(copy);
+            }
+            enqueue(cached, copy, move);
+        }
+    }
+
+    @Override
+    public String lookupUsernameWithAuth(String authToken) throws DataAccessException {
+        return delegate.lookupUsernameWithAuth(authToken);
+    }
+
+    /**
+     * Waits until every write queued so far has reached the delegate.
+     */
+    public void flush() throws DataAccessException {
+        if (closed) {
+            return;
+        }
+        CountDownLatch done = new CountDownLatch(1);
+        try {
+            writes.put(done::countDown);
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessException("Interrupted while flushing games", e);
+        }
+    }
+
+    /**
+     * Writes out everything still queued and stops the writer thread.
+     */
+    @Override
+    public void close() throws DataAccessException {
+        flush();
+        closed = true;
+        writer.interrupt();
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return number of games held in memory
+     */
+    public int cachedGames() {
+        synchronized (games) {
+            return games.size();
+        }
+    }
+
+    /**
+     * @return number of writes waiting for the writer thread
+     */
+    public int pendingWrites() {
+        return writes.size();
+    }
+
+    // 캐시에 없는 게임이면 DB 에서 읽어 와서 넣고, DB 에도 없으면 실패
+    private void loadIfMissing(int gameID) throws DataAccessException {
+        synchronized (games) {
+            if (touch(gameID) != null) {
+                return;
+            }
+        }
+        GameData loaded = delegate.getGame(gameID);
+        if (loaded == null) {
+            throw new DataAccessException("game does not exist");
+        }
+        synchronized (games) {
+            if (!games.containsKey(gameID)) {
+                put(new CachedGame(loaded));
+            }
+        }
+    }
+
+    // 게임 쓰기 하나. move 가 null 이면 updateGame 으로 통째로 쓴다
+    private record GameWrite(int gameID, long seq, GameData game, ChessMove move) {
+    }
+
+    // 큐에 자리가 날 때까지 기다린다 (DB 가 밀린 만큼만 앞서 나감). games 를 잠그기 전에 부른다
+    private void acquireWriteSlot() throws DataAccessException {
+        if (closed) {
+            throw new DataAccessException("Game cache is closed");
+        }
+        try {
+            writeSlots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessException("Interrupted while queueing a game write", e);
+        }
+    }
+
+    // games 를 잠근 상태에서 부른다. 캐시를 바꾼 것과 같은 잠금 안에서 줄을 세워야 쓰는 순서가 뒤바뀌지 않는다
+    private void enqueue(CachedGame cached, GameData game, ChessMove move) {
+        cached.pendingWrites++;
+        GameWrite write = new GameWrite(cached.gameID, ++cached.writeSeq, game, move);
+        writes.add(() -> runWrite(write));
+    }
+
+    private void runWrite(GameWrite write) {
+        writeSlots.release();
+        boolean skip;
+        boolean asSnapshot;
+        synchronized (games) {
+            CachedGame cached = games.get(write.gameID());
+            skip = cached != null && write.seq() <= cached.snapshotSeq;
+            // 한 번 실패한 게임은 저널에 빈 수가 있을 수 있으니 계속 통째로 쓴다
+            asSnapshot = write.move() == null || (cached != null && cached.broken);
+        }
+
+        boolean failed = false;
+        if (!skip) {
+            try {
+                if (asSnapshot) {
+                    delegate.updateGame(write.game());
+                } else {
+                    delegate.recordMove(write.game(), write.move());
+                }
+            } catch (Exception e) {
+                failed = true;
+                LOGGER.log(Level.SEVERE, "Failed to write game " + write.gameID(), e);
+            }
+        }
+        if (failed) {
+            writeRepairSnapshot(write.gameID());
+        }
+
+        synchronized (games) {
+            CachedGame cached = games.get(write.gameID());
+            if (cached == null) {
+                return;
+            }
+            cached.pendingWrites--;
+            // 실패한 게임은 캐시와 DB 가 다를 수 있고, 끝난 게임은 더 들고 있을 필요가 없다
+            if (cached.pendingWrites == 0 && (cached.broken || cached.isOver)) {
+                games.remove(write.gameID());
+            }
+        }
+    }
+
+    // 지금 캐시에 있는 상태를 통째로 쓴다. 성공하면 그 뒤로 줄에 남은 이 게임의 옛 쓰기는 건너뛴다
+    private void writeRepairSnapshot(int gameID) {
+        GameData snapshot;
+        long seq;
+        synchronized (games) {
+            CachedGame cached = games.get(gameID);
+            if (cached == null) {
+                return;
+            }
+            cached.broken = true;
+            seq = cached.writeSeq;
+            snapshot = cached.toGameData();
+        }
+        try {
+            delegate.updateGame(snapshot);
+        } catch (Exception e) {
+            // 남은 쓰기가 하나씩 스냅샷으로 다시 시도한다
+            LOGGER.log(Level.SEVERE, "Failed to write a snapshot of game " + gameID + " after a failed write", e);
+            return;
+        }
+        synchronized (games) {
+            CachedGame cached = games.get(gameID);
+            if (cached != null) {
+                cached.snapshotSeq = Math.max(cached.snapshotSeq, seq);
+            }
+        }
+    }
+
+    private void writeLoop() {
+        while (!closed) {
+            try {
+                writes.take().run();
+            } catch (InterruptedException e) {
+                if (closed) {
+                    break;
+                }
+            }
+        }
+        // close() 가 flush 한 뒤라 남은 건 없지만, 혹시 있으면 마저 쓴다
+        Runnable remaining;
+        while ((remaining = writes.poll()) != null) {
+            remaining.run();
+        }
+    }
+
+    // 아래 메서드들은 games 를 잠근 상태에서만 부른다
+
+    private CachedGame touch(int gameID) {
+        CachedGame cached = games.get(gameID);
+        if (cached != null) {
+            cached.lastUsed = System.currentTimeMillis();
+        }
+        return cached;
+    }
+
+    private void put(CachedGame cached) {
+        cached.lastUsed = System.currentTimeMillis();
+        games.put(cached.gameID, cached);
+        evict(cached.lastUsed);
+    }
+
+    private void evict(long now) {
+        Iterator<CachedGame> eldestFirst = games.values().iterator();
+        int excess = games.size() - maxGames;
+        while (eldestFirst.hasNext()) {
+            CachedGame cached = eldestFirst.next();
+            boolean idle = now - cached.lastUsed > idleMillis;
+            if (!idle && excess <= 0) {
+                break;
+            }
+            if (cached.pendingWrites == 0) {
+                eldestFirst.remove();
+                excess--;
+            }
+        }
+    }
+
+    // 쓰기가 큐에서 기다리는 동안 호출한 쪽이 게임을 바꿔도 영향이 없도록 복사해 둔다
+    private static GameData copyOf(GameData game) {
+        ChessGame copy = GameCodec.decode(GameCodec.encode(game.game()));
+        return new GameData(game.gameID(), game.whiteUsername(), game.blackUsername(), game.gameName(), copy,
+                game.isOver());
+    }
+}
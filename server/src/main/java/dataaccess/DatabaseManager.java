@@ -10,6 +10,7 @@ public class DatabaseManager {
     private static String connectionUrl;
 
     private static String serverUrl;
+    private static ConnectionPool connectionPool;
     /*
      * Load the database information for the db.properties file.
      */
@@ -31,9 +32,10 @@ public class DatabaseManager {
     }
 
     /**
-     * Create a connection to the database and sets the catalog based upon the
-     * properties specified in db.properties. Connections to the database should
-     * be short-lived, and you must close the connection when you are done with it.
+     * Borrow a connection to the database from the connection pool, with the
+     * catalog set based upon the properties specified in db.properties.
+     * Connections to the database should be short-lived, and you must close the
+     * connection when you are done with it; closing returns it to the pool.
      * The easiest way to do that is with a try-with-resource block.
      * <br/>
      * <code>
@@ -45,15 +47,26 @@ public class DatabaseManager {
     static Connection getConnection() throws DataAccessException {
         try {
             //do not wrap the following line with a try-with-resources
-            var conn = DriverManager.getConnection(connectionUrl, dbUsername, dbPassword);
-            System.out.printf("[DB] URL=%s  Catalog=%s%n", connectionUrl, conn.getCatalog());
-            conn.setCatalog(databaseName);
-            return conn;
+            return connectionPool.getConnection();
         } catch (SQLException ex) {
             throw new DataAccessException("failed to get connection", ex);
         }
     }
 
+    /**
+     * @return the connection pool's current size and counters
+     */
+    public static ConnectionPool.Stats connectionPoolStats() {
+        return connectionPool.stats();
+    }
+
+    // 풀이 새 연결이 필요할 때만 부른다
+    private static Connection openConnection() throws SQLException {
+        var conn = DriverManager.getConnection(connectionUrl, dbUsername, dbPassword);
+        conn.setCatalog(databaseName);
+        return conn;
+    }
+
     private static void loadPropertiesFromResources() {
         try (var propStream = Thread.currentThread().getContextClassLoader().getResourceAsStream("db.properties")) {
             if (propStream == null) {
@@ -77,7 +90,19 @@ public class DatabaseManager {
 
 
         serverUrl     = String.format("jdbc:mysql://%s:%d/", host, port);
-        connectionUrl = String.format("jdbc:mysql://%s:%d/%s", host, port, databaseName);
+        // 풀의 연결마다 PreparedStatement 를 서버에 준비해 두고 재사용한다 (Connector/J 문장 캐시)
+        connectionUrl = String.format("jdbc:mysql://%s:%d/%s?%s", host, port, databaseName,
+                props.getProperty("db.urlOptions",
+                        "useServerPrepStmts=true&cachePrepStmts=true&prepStmtCacheSize=64&prepStmtCacheSqlLimit=2048"));
+
+        // db.pool.* 는 없어도 된다. 연결은 처음 빌려 갈 때 만든다
+        connectionPool = new ConnectionPool(
+                DatabaseManager::openConnection,
+                Integer.parseInt(props.getProperty("db.pool.maxSize", "10")),
+                Long.parseLong(props.getProperty("db.pool.connectionTimeoutMillis", "5000")),
+                Long.parseLong(props.getProperty("db.pool.idleTimeoutMillis", "600000")),
+                Long.parseLong(props.getProperty("db.pool.maxLifetimeMillis", "1800000")),
+                Long.parseLong(props.getProperty("db.pool.validationIntervalMillis", "5000")));
     }
 
     public static void setupDatabase() throws DataAccessException {
@@ -109,6 +134,8 @@ public class DatabaseManager {
                 game_id INT AUTO_INCREMENT PRIMARY KEY,
                 game_name VARCHAR(100),
                 state_json TEXT,
+                state_bin VARBINARY(64),
+                snapshot_ply INT NOT NULL DEFAULT 0,
                 white_id INT,
                 black_id INT,
                 is_over BOOLEAN DEFAULT FALSE,
@@ -119,13 +146,41 @@ public class DatabaseManager {
             );
         """;
 
+        // 한 수에 한 행. move 는 GameCodec.encodeMove 로 묶은 16 비트 값
+        String moveTable = """
+            CREATE TABLE IF NOT EXISTS game_moves (
+                game_id INT NOT NULL,
+                ply INT NOT NULL,
+                move SMALLINT NOT NULL,
+                played_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+                PRIMARY KEY (game_id, ply),
+                FOREIGN KEY (game_id) REFERENCES games(game_id) ON DELETE CASCADE
+            );
+        """;
+
         try (Connection connection = getConnection();
              Statement statement = connection.createStatement()) {
             statement.executeUpdate(userTable);
             statement.executeUpdate(tokenTable);
             statement.executeUpdate(gameTable);
+            addColumnIfMissing(connection, "games", "state_bin", "VARBINARY(64) AFTER state_json");
+            addColumnIfMissing(connection, "games", "snapshot_ply", "INT NOT NULL DEFAULT 0 AFTER state_bin");
+            statement.executeUpdate(moveTable);
         } catch (SQLException e) {
             throw new DataAccessException("Table creation failed", e);
         }
     }
+
+    // CREATE TABLE IF NOT EXISTS 는 이미 있는 테이블에 새 컬럼을 안 만들어 주니 따로 추가
+    private static void addColumnIfMissing(Connection connection, String table, String column, String definition)
+            throws SQLException {
+        try (var columns = connection.getMetaData().getColumns(databaseName, null, table, column)) {
+            if (columns.next()) {
+                return;
+            }
+        }
+        try (var statement = connection.createStatement()) {
+            statement.executeUpdate("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+        }
+    }
 }
@@ -0,0 +1,151 @@
+package dataaccess;
+
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hashes and checks passwords with BCrypt on a small dedicated thread pool.
+ * <p>
+ * BCrypt is deliberately slow, so running it on request threads lets a burst of
+ * registrations or logins tie up the threads that serve everything else. Here
+ * at most {@code threads} hashes run at once and at most {@code queueCapacity}
+ * more wait. Beyond that a call fails at once with
+ * {@code DataAccessException("server busy")}, which the HTTP handlers turn into
+ * a 503. The caller still waits for its own hash, but without using CPU.
+ * <p>
+ * Pool sizes come from the {@code chess.hash.threads} and
+ * {@code chess.hash.queue} system properties, defaulting to the number of
+ * cores and 64.
+ */
+public final class PasswordHasher {
+
+    /**
+     * Counters since the hasher was created.
+     *
+     * @param completed          hashes and checks that ran
+     * @param rejected           calls refused because the queue was full
+     * @param running            calls currently hashing
+     * @param queued             calls currently waiting for a thread
+     * @param averageHashMillis  average time spent in BCrypt
+     * @param averageWaitMillis  average time spent waiting in the queue
+     * @param maxWaitMillis      longest time spent waiting in the queue
+     */
+    public record Stats(long completed, long rejected, int running, int queued, double averageHashMillis,
+                        double averageWaitMillis, double maxWaitMillis) {
+    }
+
+    // jBCrypt 의 기본 cost (BCrypt.gensalt() 와 같음)
+    public static final int DEFAULT_LOG_ROUNDS = 10;
+
+    private static final PasswordHasher SHARED = new PasswordHasher(
+            Integer.getInteger("chess.hash.threads", Runtime.getRuntime().availableProcessors()),
+            Integer.getInteger("chess.hash.queue", 64),
+            DEFAULT_LOG_ROUNDS);
+
+    private final ThreadPoolExecutor executor;
+    private final int logRounds;
+
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    /**
+     * @return the hasher shared by the server's data access and services
+     */
+    public static PasswordHasher shared() {
+        return SHARED;
+    }
+
+    /**
+     * @param threads       hashes that may run at the same time
+     * @param queueCapacity calls that may wait for a thread; 0 means none wait
+     * @param logRounds     BCrypt cost for new hashes
+     */
+    public PasswordHasher(int threads, int queueCapacity, int logRounds) {
+        BlockingQueue<Runnable> queue = queueCapacity > 0 ? new ArrayBlockingQueue<>(queueCapacity) : new SynchronousQueue<>();
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, queue, runnable -> {
+            Thread thread = new Thread(runnable, "password-hasher-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        this.logRounds = logRounds;
+    }
+
+    /**
+     * @return the BCrypt hash of the password, with a new salt
+     * @throws DataAccessException "server busy" if too many hashes are already waiting
+     */
+    public String hash(String password) throws DataAccessException {
+        return run(() -> BCrypt.hashpw(password, BCrypt.gensalt(logRounds)));
+    }
+
+    /**
+     * @return whether the password matches the hash
+     * @throws DataAccessException "server busy" if too many hashes are already waiting
+     */
+    public boolean check(String password, String hash) throws DataAccessException {
+        return run(() -> BCrypt.checkpw(password, hash));
+    }
+
+    /**
+     * @return hash timing, queue wait and rejection counters, for monitoring
+     */
+    public Stats stats() {
+        long done = completed.get();
+        double toMillis = 1_000_000.0;
+        return new Stats(done, rejected.get(), executor.getActiveCount(), executor.getQueue().size(),
+                done == 0 ? 0 : hashNanos.sum() / toMillis / done,
+                done == 0 ? 0 : waitNanos.sum() / toMillis / done,
+                maxWaitNanos.get() / toMillis);
+    }
+
+    private <T> T run(Callable<T> work) throws DataAccessException {
+        long queuedAt = System.nanoTime();
+        Future<T> result;
+        try {
+            result = executor.submit(() -> {
+                long start = System.nanoTime();
+                waitNanos.add(start - queuedAt);
+                maxWaitNanos.accumulateAndGet(start - queuedAt, Math::max);
+                try {
+                    return work.call();
+                } finally {
+                    hashNanos.add(System.nanoTime() - start);
+                    completed.incrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw new DataAccessException("server busy");
+        }
+
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.cancel(true);
+            throw new DataAccessException("Interrupted while hashing a password", e);
+        } catch (ExecutionException e) {
+            // 잘못된 해시 형식 같은 건 예전처럼 그대로 던진다
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new DataAccessException("Failed to hash password", e.getCause());
+        }
+    }
+}
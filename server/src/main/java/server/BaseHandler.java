@@ -25,6 +25,12 @@ public abstract class BaseHandler implements Route {
                 res.status(401);
                 return errorJson("unauthorized");
             }
+            // 비밀번호 해싱 풀이 꽉 참. 잠시 뒤에 다시 시도하면 된다
+            if ("server busy".equals(e.getMessage())) {
+                res.status(503);
+                res.header("Retry-After", "1");
+                return errorJson("server busy");
+            }
             res.status(500);
             return errorJson(e.getMessage());
         } catch (Exception e) {
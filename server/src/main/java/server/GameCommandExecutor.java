@@ -0,0 +1,139 @@
+package server;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs WebSocket commands one game at a time.
+ * <p>
+ * Each game gets a mailbox. Tasks for the same game run one after another in
+ * the order they were submitted, so a command sees every earlier command's
+ * changes to that game. Mailboxes of different games are drained in parallel
+ * on a shared worker pool. A mailbox exists only while it has work; it is
+ * created on the first submit and dropped once drained. Once closed, or if the
+ * worker pool refuses a game, that game's queued tasks are dropped and
+ * {@link #execute} reports that the task was not taken.
+ */
+class GameCommandExecutor implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(GameCommandExecutor.class.getName());
+
+    // 한 게임이 일꾼 스레드를 너무 오래 붙잡지 않도록, 이만큼 처리하면 다시 줄을 선다
+    private static final int BATCH_SIZE = 32;
+
+    private final ExecutorService workers;
+    private final Map<Integer, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    // 상태는 전부 mailboxes 의 compute 안에서만 바꾼다 (게임 ID 별 잠금 역할)
+    private static final class Mailbox {
+        final Queue<Runnable> tasks = new ArrayDeque<>();
+        boolean scheduled;
+    }
+
+    GameCommandExecutor(ExecutorService workers) {
+        this.workers = workers;
+    }
+
+    /**
+     * Queues a task behind any earlier tasks for the same game.
+     *
+     * @return false if the executor is closed and the task was dropped
+     */
+    boolean execute(int gameID, Runnable task) {
+        if (closed) {
+            return false;
+        }
+        boolean[] schedule = new boolean[1];
+        mailboxes.compute(gameID, (id, mailbox) -> {
+            if (mailbox == null) {
+                mailbox = new Mailbox();
+            }
+            mailbox.tasks.add(task);
+            if (!mailbox.scheduled) {
+                mailbox.scheduled = true;
+                schedule[0] = true;
+            }
+            return mailbox;
+        });
+        return !schedule[0] || schedule(gameID);
+    }
+
+    /**
+     * @return number of games with queued or running commands
+     */
+    int activeGames() {
+        return mailboxes.size();
+    }
+
+    /**
+     * Stops taking new work and waits briefly for queued commands to finish.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        workers.shutdown();
+        try {
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain(int gameID) {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            Runnable task = poll(gameID);
+            if (task == null) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.SEVERE, "Command for game " + gameID + " failed", e);
+            }
+        }
+        // 아직 남았으면 다른 게임들 뒤로 다시 줄을 선다
+        boolean[] more = new boolean[1];
+        mailboxes.computeIfPresent(gameID, (id, mailbox) -> {
+            if (mailbox.tasks.isEmpty()) {
+                return null;
+            }
+            more[0] = true;
+            return mailbox;
+        });
+        if (more[0]) {
+            schedule(gameID);
+        }
+    }
+
+    // 일꾼 풀이 받아 주지 않으면 (닫히는 중) 메일박스를 지운다. 그대로 두면 scheduled 가 남아 영영 멈춘다
+    private boolean schedule(int gameID) {
+        try {
+            workers.execute(() -> drain(gameID));
+            return true;
+        } catch (RejectedExecutionException e) {
+            Mailbox dropped = mailboxes.remove(gameID);
+            int count = dropped == null ? 0 : dropped.tasks.size();
+            LOGGER.log(Level.WARNING, "Dropped " + count + " commands for game " + gameID
+                    + ": the worker pool is shut down", e);
+            return false;
+        }
+    }
+
+    // 다음 작업을 꺼낸다. 비었으면 메일박스를 지우고 null
+    private Runnable poll(int gameID) {
+        Runnable[] next = new Runnable[1];
+        mailboxes.computeIfPresent(gameID, (id, mailbox) -> {
+            next[0] = mailbox.tasks.poll();
+            return next[0] == null ? null : mailbox;
+        });
+        return next[0];
+    }
+}
@@ -13,6 +13,8 @@ public class Main {
         port = 5000;
         Server server = new Server();
         server.run(port);
+        // 종료될 때 캐시에만 있는 게임 상태를 DB 에 쓴다
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
         System.out.println("Server started on port " + port);
     }
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+package server;
+
+import com.google.gson.Gson;
+import websocket.messages.LoadGameMessage;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A server message serialized at most once per form, however many sessions it
+ * is sent to.
+ * <p>
+ * Most messages have one form. A full {@link LoadGameMessage} also has a
+ * compact form for sessions that asked for {@code GameCodec} boards. Each form
+ * is turned into JSON and UTF-8 bytes the first time a recipient needs it; later
+ * recipients get a view of the same bytes from {@link #payload}. Only the
+ * thread doing the broadcast uses an instance, so nothing is synchronized.
+ */
+final class OutgoingMessage {
+
+    private final Object message;
+    // 압축 형태가 따로 있는 메시지면 원본 LOAD_GAME, 아니면 null
+    private final LoadGameMessage fullGame;
+
+    private String json;
+    private ByteBuffer bytes;
+    private String compactJson;
+    private ByteBuffer compactBytes;
+
+    OutgoingMessage(Object message) {
+        this.message = message;
+        this.fullGame = message instanceof LoadGameMessage loadGame && !loadGame.isCompact() ? loadGame : null;
+    }
+
+    /**
+     * @return whether this is a {@code LOAD_GAME}, which a newer one makes obsolete
+     */
+    boolean isLoadGame() {
+        return message instanceof LoadGameMessage;
+    }
+
+    /**
+     * @return the JSON text of the form for this kind of session
+     */
+    String json(Gson gson, boolean compact) {
+        if (compact && fullGame != null) {
+            if (compactJson == null) {
+                compactJson = gson.toJson(LoadGameMessage.compact(fullGame.getGame(), fullGame.getMoveMade()));
+            }
+            return compactJson;
+        }
+        if (json == null) {
+            json = gson.toJson(message);
+        }
+        return json;
+    }
+
+    /**
+     * @return a read-only view of the UTF-8 JSON for this kind of session. Every
+     *         call returns a new view with its own position over the same bytes,
+     *         so one can be handed to each recipient's connection
+     */
+    ByteBuffer payload(Gson gson, boolean compact) {
+        if (compact && fullGame != null) {
+            if (compactBytes == null) {
+                compactBytes = encode(json(gson, true));
+            }
+            return compactBytes.duplicate();
+        }
+        if (bytes == null) {
+            bytes = encode(json(gson, false));
+        }
+        return bytes.duplicate();
+    }
+
+    private static ByteBuffer encode(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+    }
+}
@@ -5,16 +5,40 @@ import service.ClearService;
 import service.GameService;
 import service.UserService;
 import spark.Spark;
+import spark.embeddedserver.EmbeddedServers;
+import spark.embeddedserver.jetty.EmbeddedJettyFactory;
 import dataaccess.DatabaseManager;
 import server.WebSocketServer;
 
 
+import java.util.concurrent.Executors;
+
 import static spark.Spark.*;
 
 
 public class Server {
 
+    // -Dchess.threads=virtual 또는 환경 변수 CHESS_THREADS=virtual 이면 가상 스레드 모드
+    public static final String THREAD_MODE_PROPERTY = "chess.threads";
+    public static final String THREAD_MODE_ENV = "CHESS_THREADS";
+
+    private DataAccessWithGameCache gameCache;
+    private WebSocketServer webSocketServer;
+
     public int run(int portNumber) {
+        return run(portNumber, useVirtualThreads());
+    }
+
+    /**
+     * @param virtualThreads run HTTP handlers and WebSocket commands on virtual
+     *                       threads instead of fixed platform thread pools.
+     *                       Database work stays bounded by the connection pool.
+     */
+    public int run(int portNumber, boolean virtualThreads) {
+        // Spark 는 Jetty 팩토리를 전역으로 들고 있으니 실행할 때마다 다시 정한다
+        EmbeddedServers.add(EmbeddedServers.Identifiers.JETTY, virtualThreads
+                ? new EmbeddedJettyFactory().withThreadPool(new VirtualThreadPool())
+                : new EmbeddedJettyFactory());
         port(portNumber);
 
         webSocketIdleTimeoutMillis(600_000);
@@ -23,7 +47,10 @@ public class Server {
 
         try {
             DatabaseManager.setupDatabase();
-            dataAccessObject = new DataAccessOnMySQL();
+            // 진행 중인 게임은 메모리에 두고, DB 에는 뒤에서 순서대로 쓴다
+            gameCache = new DataAccessWithGameCache(new DataAccessOnMySQL());
+            // 명령마다 하는 토큰 확인도 DB 까지 가지 않게
+            dataAccessObject = new DataAccessWithAuthCache(gameCache);
         } catch (DataAccessException e) {
             System.err.println("Database setup failed: " +e.getMessage());
             throw new RuntimeException(e);
@@ -38,7 +65,10 @@ public class Server {
 
         // Register your endpoints and handle exceptions here.
 
-        webSocket("/ws", new WebSocketServer(gameService, userService));
+        webSocketServer = virtualThreads
+                ? new WebSocketServer(gameService, userService, Executors.newVirtualThreadPerTaskExecutor())
+                : new WebSocketServer(gameService, userService);
+        webSocket("/ws", webSocketServer);
 
         delete("/db", new ClearHandler(clearService));
 
@@ -56,8 +86,27 @@ public class Server {
         return port();
     }
 
+    private static boolean useVirtualThreads() {
+        String mode = System.getProperty(THREAD_MODE_PROPERTY, System.getenv(THREAD_MODE_ENV));
+        return "virtual".equalsIgnoreCase(mode);
+    }
+
     public void stop() {
         Spark.stop();
         awaitStop();
+        // 줄 서 있던 웹소켓 명령을 끝낸 뒤에 캐시를 비워야 마지막 수까지 저장된다
+        if (webSocketServer != null) {
+            webSocketServer.close();
+            webSocketServer = null;
+        }
+        // 아직 DB 에 안 쓴 수가 남아 있으면 마저 쓴다
+        if (gameCache != null) {
+            try {
+                gameCache.close();
+            } catch (DataAccessException e) {
+                System.err.println("Failed to flush games: " + e.getMessage());
+            }
+            gameCache = null;
+        }
     }
 }
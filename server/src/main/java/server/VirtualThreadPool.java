@@ -0,0 +1,70 @@
+package server;
+
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.thread.ThreadPool;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Jetty thread pool that runs every task on a new virtual thread.
+ * <p>
+ * Jetty 9.4 predates virtual threads, so this adapts
+ * {@link Executors#newThreadPerTaskExecutor} to its {@link ThreadPool}
+ * interface. There is no upper bound on threads; blocking work such as JDBC is
+ * bounded where it happens instead (see {@code dataaccess.ConnectionPool}).
+ * The pool is stopped together with the Jetty server that owns it, so create a
+ * new one for every server start.
+ */
+class VirtualThreadPool extends AbstractLifeCycle implements ThreadPool {
+
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("jetty-virtual-", 0).factory());
+    private final AtomicInteger running = new AtomicInteger();
+
+    @Override
+    public void execute(Runnable task) {
+        executor.execute(() -> {
+            running.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                running.decrementAndGet();
+            }
+        });
+    }
+
+    @Override
+    public void join() throws InterruptedException {
+        while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+            // 서버가 멈출 때까지 계속 기다린다
+        }
+    }
+
+    @Override
+    public int getThreads() {
+        return running.get();
+    }
+
+    // 필요할 때마다 새로 만드니 놀고 있는 스레드도, 모자랄 일도 없다
+    @Override
+    public int getIdleThreads() {
+        return 0;
+    }
+
+    @Override
+    public boolean isLowOnThreads() {
+        return false;
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        executor.shutdown();
+        if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+        super.doStop();
+    }
+}
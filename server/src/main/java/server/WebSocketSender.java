@@ -0,0 +1,267 @@
+package server;
+
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.eclipse.jetty.websocket.common.WebSocketRemoteEndpoint;
+import org.eclipse.jetty.websocket.common.frames.TextFrame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Sends WebSocket messages without waiting for the client to read them.
+ * <p>
+ * Each session gets a small outbox. A send only adds the frame to it; the frame
+ * is written when the previous one has finished, so one slow client no longer
+ * holds up the rest of a broadcast. A queued {@code LOAD_GAME} that has not
+ * started writing is dropped when a newer one arrives, because the client only
+ * needs the latest board. A session whose outbox is still full after that
+ * ({@code maxQueued} frames), or whose current write has not finished for
+ * {@code maxStallMillis}, is disconnected and its queued frames are dropped.
+ * <p>
+ * Limits come from the {@code chess.ws.queue} and {@code chess.ws.stallMillis}
+ * system properties, defaulting to 64 frames and 10 seconds.
+ */
+public final class WebSocketSender {
+
+    /**
+     * Counters since the sender was created.
+     *
+     * @param sessions        sessions with an outbox
+     * @param queuedFrames    frames currently waiting to be written
+     * @param maxQueueDepth   most frames ever waiting in one outbox
+     * @param sent            frames written
+     * @param coalesced       {@code LOAD_GAME} frames replaced by a newer one before being written
+     * @param dropped         frames thrown away because their session was closed, failed or too slow
+     * @param slowDisconnects sessions disconnected for not keeping up
+     */
+    public record Stats(int sessions, int queuedFrames, int maxQueueDepth, long sent, long coalesced,
+                        long dropped, long slowDisconnects) {
+    }
+
+    /**
+     * One message as it goes out to one session: the JSON text and a view of
+     * its UTF-8 bytes that only this send reads.
+     */
+    record Frame(String json, ByteBuffer payload, boolean loadGame) {
+    }
+
+    /**
+     * Writes a frame and reports through the callback when it is done.
+     */
+    interface Transport {
+        void write(Session session, Frame frame, WriteCallback callback) throws IOException;
+    }
+
+    public static final int DEFAULT_MAX_QUEUED = 64;
+    public static final long DEFAULT_MAX_STALL_MILLIS = 10_000;
+
+    private static final Logger LOGGER = Logger.getLogger(WebSocketSender.class.getName());
+
+    private final int maxQueued;
+    private final long maxStallMillis;
+    private final Transport transport;
+    private final Map<Session, Outbox> outboxes = new ConcurrentHashMap<>();
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong slowDisconnects = new AtomicLong();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+
+    WebSocketSender() {
+        this(Integer.getInteger("chess.ws.queue", DEFAULT_MAX_QUEUED),
+                Long.getLong("chess.ws.stallMillis", DEFAULT_MAX_STALL_MILLIS),
+                WebSocketSender::writeWithJetty);
+    }
+
+    WebSocketSender(int maxQueued, long maxStallMillis, Transport transport) {
+        if (maxQueued < 1) {
+            throw new IllegalArgumentException("Outbox size must be at least 1");
+        }
+        this.maxQueued = maxQueued;
+        this.maxStallMillis = maxStallMillis;
+        this.transport = transport;
+    }
+
+    /**
+     * Queues a frame behind the session's earlier frames and returns at once.
+     */
+    void send(Session session, Frame frame) {
+        if (!session.isOpen()) {
+            dropped.incrementAndGet();
+            return;
+        }
+        outboxes.computeIfAbsent(session, Outbox::new).offer(frame);
+    }
+
+    /**
+     * Forgets a closed session and drops whatever was still queued for it.
+     */
+    void remove(Session session) {
+        Outbox outbox = outboxes.remove(session);
+        if (outbox != null) {
+            outbox.discard();
+        }
+    }
+
+    /**
+     * @return queue depth, coalescing and drop counters, for monitoring
+     */
+    public Stats stats() {
+        int queued = 0;
+        for (Outbox outbox : outboxes.values()) {
+            queued += outbox.size();
+        }
+        return new Stats(outboxes.size(), queued, maxQueueDepth.get(), sent.get(), coalesced.get(),
+                dropped.get(), slowDisconnects.get());
+    }
+
+    private final class Outbox implements WriteCallback {
+        private final Session session;
+        // I/O 중에는 잡지 않는다. 가상 스레드를 묶어 두지 않도록 synchronized 대신 쓴다
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Queue<Frame> queue = new ArrayDeque<>();
+        private boolean writing;
+        private long writingSince;
+        private boolean closed;
+
+        Outbox(Session session) {
+            this.session = session;
+        }
+
+        void offer(Frame frame) {
+            boolean start = false;
+            boolean tooSlow = false;
+            long now = System.currentTimeMillis();
+            lock.lock();
+            try {
+                if (closed) {
+                    dropped.incrementAndGet();
+                    return;
+                }
+                if (frame.loadGame()) {
+                    coalesce();
+                }
+                if (queue.size() >= maxQueued || (writing && now - writingSince > maxStallMillis)) {
+                    tooSlow = true;
+                    closed = true;
+                    dropped.addAndGet(queue.size() + 1L);
+                    queue.clear();
+                } else {
+                    queue.add(frame);
+                    maxQueueDepth.accumulateAndGet(queue.size(), Math::max);
+                    if (!writing) {
+                        writing = true;
+                        start = true;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (tooSlow) {
+                disconnectSlow();
+            } else if (start) {
+                writeNext();
+            }
+        }
+
+        // lock 을 잡은 상태에서 부른다. 아직 쓰기 시작하지 않은 옛 보드는 새 보드가 대신한다
+        private void coalesce() {
+            Iterator<Frame> queued = queue.iterator();
+            while (queued.hasNext()) {
+                if (queued.next().loadGame()) {
+                    queued.remove();
+                    coalesced.incrementAndGet();
+                }
+            }
+        }
+
+        private void writeNext() {
+            Frame next;
+            lock.lock();
+            try {
+                next = closed ? null : queue.poll();
+                if (next == null) {
+                    writing = false;
+                    return;
+                }
+                writingSince = System.currentTimeMillis();
+            } finally {
+                lock.unlock();
+            }
+            try {
+                transport.write(session, next, this);
+            } catch (Exception e) {
+                writeFailed(e);
+            }
+        }
+
+        @Override
+        public void writeSuccess() {
+            sent.incrementAndGet();
+            writeNext();
+        }
+
+        @Override
+        public void writeFailed(Throwable cause) {
+            LOGGER.log(Level.WARNING, "WebSocket error(Failed to send a message)", cause);
+            discard();
+        }
+
+        void discard() {
+            lock.lock();
+            try {
+                closed = true;
+                writing = false;
+                dropped.addAndGet(queue.size());
+                queue.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return queue.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // 닫기 프레임도 밀린 프레임 뒤에 줄을 서야 하니 연결을 바로 끊는다. 정리는 onClose 에서 한다
+        private void disconnectSlow() {
+            slowDisconnects.incrementAndGet();
+            LOGGER.warning("Disconnecting a WebSocket client that is not keeping up: " + session.getRemoteAddress());
+            try {
+                session.disconnect();
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to disconnect a slow WebSocket client", e);
+            }
+        }
+    }
+
+    // 공유된 인코딩 바이트를 그대로 프레임에 싣는다. Jetty 가 아닌 원격 끝(벤치마크의 가짜 세션 등)은 글로 보낸다
+    private static void writeWithJetty(Session session, Frame frame, WriteCallback callback) throws IOException {
+        RemoteEndpoint remote = session.getRemote();
+        if (remote instanceof WebSocketRemoteEndpoint endpoint) {
+            endpoint.uncheckedSendFrame(new TextFrame().setPayload(frame.payload()), callback);
+        } else {
+            remote.sendString(frame.json());
+            callback.writeSuccess();
+        }
+    }
+}
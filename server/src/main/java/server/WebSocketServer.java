@@ -22,6 +22,10 @@ import websocket.messages.NotificationMessage;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -36,31 +40,82 @@ public class WebSocketServer {
 
     private static final Map<Session, Integer> SESSION_GAME_MAP = new ConcurrentHashMap<>();
     private static final Map<Session, String> SESSION_TOKEN_MAP = new ConcurrentHashMap<>();
+    // CONNECT 할 때 GameCodec 형식의 LOAD_GAME 을 원한 세션들
+    private static final Set<Session> COMPACT_SESSIONS = ConcurrentHashMap.newKeySet();
 
     private final GameService gameService;
     private final UserService userService;
-    private Session session;
-    private int currentGameID;
+    // 한 게임의 명령은 들어온 순서대로 하나씩, 다른 게임끼리는 동시에 처리한다
+    private final GameCommandExecutor gameExecutor;
+    private final WebSocketSender sender = new WebSocketSender();
 
     public WebSocketServer(GameService gameService, UserService userService) {
+        this(gameService, userService, Executors.newFixedThreadPool(
+                Math.max(4, 2 * Runtime.getRuntime().availableProcessors()), workerThreads()));
+    }
+
+    public WebSocketServer(GameService gameService, UserService userService, ExecutorService workers) {
         this.gameService = gameService;
         this.userService = userService;
+        this.gameExecutor = new GameCommandExecutor(workers);
+    }
+
+    private static ThreadFactory workerThreads() {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "game-worker-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Stops the game worker threads, letting queued commands finish first.
+     */
+    public void close() {
+        gameExecutor.close();
+    }
+
+    /**
+     * @return outbound queue depth and dropped frame counters, for monitoring
+     */
+    public WebSocketSender.Stats sendStats() {
+        return sender.stats();
     }
 
     @OnWebSocketConnect
     public void connectionConfirmed(Session session) {
-        this.session = session;
         System.out.println("WebSocket connected");
     }
 
     @OnWebSocketMessage
     public void receiveMessage(Session session, String message) {
+        UserGameCommand command;
         try {
-            UserGameCommand command = GSON.fromJson(message, UserGameCommand.class);
-            this.currentGameID = command.getGameID();
+            command = GSON.fromJson(message, UserGameCommand.class);
+        } catch (Exception e) {
+            LOGGER.log(Level.WARNING, "Unreadable WebSocket command", e);
+            send(session, new ErrorMessage("Error: Invalid command."));
+            return;
+        }
+        if (command == null || command.getGameID() == null || command.getCommandType() == null) {
+            send(session, new ErrorMessage("Error: Invalid command."));
+            return;
+        }
+        // Jetty 스레드는 바로 돌려보내고, 실제 처리는 그 게임의 차례가 왔을 때 한다
+        if (!gameExecutor.execute(command.getGameID(), () -> handleCommand(session, command))) {
+            send(session, new ErrorMessage("Error: Server is shutting down."));
+        }
+    }
 
-            GAME_SESSIONS.putIfAbsent(currentGameID, ConcurrentHashMap.newKeySet());
-            GAME_SESSIONS.get(currentGameID).add(session);
+    private void handleCommand(Session session, UserGameCommand command) {
+        // 차례를 기다리는 사이 연결이 끊겼으면 처리하지 않는다 (onClose 정리 뒤에 다시 등록되지 않게)
+        if (!session.isOpen()) {
+            return;
+        }
+        try {
+            int gameID = command.getGameID();
+            GAME_SESSIONS.computeIfAbsent(gameID, id -> ConcurrentHashMap.newKeySet()).add(session);
 
             switch (command.getCommandType()) {
                 case CONNECT -> handleConnect(session, command);
@@ -106,6 +161,9 @@ public class WebSocketServer {
 
         SESSION_GAME_MAP.put(session, command.getGameID());
         SESSION_TOKEN_MAP.put(session, command.getAuthToken());
+        if (command.wantsCompactGame()) {
+            COMPACT_SESSIONS.add(session);
+        }
 
         ChessGame game = gameData.game();
         send(session, new LoadGameMessage(game, null));
@@ -118,7 +176,7 @@ public class WebSocketServer {
             role = "an observer"; // 관전자
         }
         String msg = String.format("%s has joined as %s.", username, role);
-        broadcastToOthers(session, currentGameID, new NotificationMessage(msg));
+        broadcastToOthers(session, command.getGameID(), new NotificationMessage(msg));
     }
 
     private void handleMove(Session session, UserGameCommand command) throws DataAccessException {
@@ -155,23 +213,23 @@ public class WebSocketServer {
         ChessMove move = command.getMove();
 
         try {
-            gameService.makeMove(gameID, move);
-            ChessGame updatedGame = gameService.getGame(gameID).game();
-            broadcastToAll(currentGameID, new LoadGameMessage(updatedGame, move));
+            // makeMove 가 돌려준 게임을 그대로 써서 다시 읽지 않고, 아래 상태 확인도 캐시된 합법 수를 쓴다
+            ChessGame updatedGame = gameService.makeMove(gameID, move).game();
+            broadcastToAll(gameID, new LoadGameMessage(updatedGame, move));
 
             String moveDescription = describeMove(command.getMove());
             String message = String.format("%s moved %s.", username, moveDescription);
 
-            broadcastToOthers(session, currentGameID, new NotificationMessage(message));
+            broadcastToOthers(session, gameID, new NotificationMessage(message));
 
             ChessGame.TeamColor nextTurn = updatedGame.getTeamTurn();
 
             if (updatedGame.isInCheckmate(nextTurn)) {
-                broadcastToAll(currentGameID, new NotificationMessage(nextTurn + " is checkmated. Game over."));
+                broadcastToAll(gameID, new NotificationMessage(nextTurn + " is checkmated. Game over."));
             } else if (updatedGame.isInStalemate(nextTurn)) {
-                broadcastToAll(currentGameID, new NotificationMessage(nextTurn + "Stalemate. Game drawn."));
+                broadcastToAll(gameID, new NotificationMessage(nextTurn + "Stalemate. Game drawn."));
             } else if (updatedGame.isInCheck(nextTurn)) {
-                broadcastToAll(currentGameID, new NotificationMessage(nextTurn + " is in check."));
+                broadcastToAll(gameID, new NotificationMessage(nextTurn + " is in check."));
             }
 
         } catch (InvalidMoveException e) {
@@ -211,32 +269,37 @@ public class WebSocketServer {
         }
 
         gameService.resign(command.getAuthToken(), command.getGameID());
-        broadcastToAll(currentGameID, new NotificationMessage(">>> " + username + " has resigned. Game ended."));
+        broadcastToAll(command.getGameID(), new NotificationMessage(">>> " + username + " has resigned. Game ended."));
     }
 
     private void send(Session session, Object message) {
-        try {
-            session.getRemote().sendString(GSON.toJson(message));
-        } catch (Exception e) {
-            System.out.println("WebSocket error(Failed to send a message): " + e.getMessage());
-            LOGGER.log(Level.SEVERE, "WebSocket error(Failed to send a message)", e);
-        }
+        deliver(session, new OutgoingMessage(message));
     }
 
+    // 받는 세션이 몇이든 메시지는 형태별로 한 번만 JSON 으로 바꾼다
     private void broadcastToAll(int gameID, Object message) {
+        OutgoingMessage outgoing = new OutgoingMessage(message);
         for (Session session : GAME_SESSIONS.getOrDefault(gameID, Set.of())) {
-            send(session, message);
+            deliver(session, outgoing);
         }
     }
 
     private void broadcastToOthers(Session sender, int gameID, Object message) {
+        OutgoingMessage outgoing = new OutgoingMessage(message);
         for (Session session : GAME_SESSIONS.getOrDefault(gameID, Set.of())) {
             if (!session.equals(sender)) {
-                send(session, message);
+                deliver(session, outgoing);
             }
         }
     }
 
+    // 기다리지 않고 세션의 보낼 줄에 넣기만 한다. 느린 클라이언트가 다른 사람의 전송을 막지 않는다
+    private void deliver(Session session, OutgoingMessage outgoing) {
+        boolean compact = COMPACT_SESSIONS.contains(session);
+        sender.send(session, new WebSocketSender.Frame(outgoing.json(GSON, compact),
+                outgoing.payload(GSON, compact), outgoing.isLoadGame()));
+    }
+
     private String describeMove(ChessMove move) {
         char startCol = (char) ('A' + move.getStartPosition().getColumn() - 1);
         int startRow = move.getStartPosition().getRow();
@@ -247,10 +310,25 @@ public class WebSocketServer {
 
     @OnWebSocketClose
     public void onClose(Session session, int statusCode, String reason) {
-        Integer gameID = SESSION_GAME_MAP.remove(session);
-        String  token  = SESSION_TOKEN_MAP.remove(session);
+        Integer gameID = SESSION_GAME_MAP.get(session);
+        System.out.printf("WebSocket closed: [%d] %s%n", statusCode, reason);
+        sender.remove(session);
+        if (gameID == null) {
+            COMPACT_SESSIONS.remove(session);
+            SESSION_TOKEN_MAP.remove(session);
+            return;
+        }
+        // 자동 LEAVE 도 게임 상태를 바꾸니 그 게임의 다른 명령들과 같은 줄에 세운다
+        if (!gameExecutor.execute(gameID, () -> leaveOnClose(session, gameID))) {
+            // 서버가 멈추는 중이면 게임은 그대로 두고 세션 정보만 지운다
+            forget(session, gameID);
+        }
+    }
+
+    private void leaveOnClose(Session session, int gameID) {
+        String token = forget(session, gameID);
 
-        if (gameID != null && token != null) {
+        if (token != null) {
             try {
                 gameService.leave(token, gameID);
                 String username = userService.getUsername(token);
@@ -259,9 +337,18 @@ public class WebSocketServer {
             } catch (DataAccessException e) {
                 LOGGER.log(Level.WARNING, "auto-LEAVE failed on close", e);
             }
-            GAME_SESSIONS.getOrDefault(gameID, Set.of()).remove(session);
         }
-        System.out.printf("WebSocket closed: [%d] %s%n", statusCode, reason);
+    }
+
+    // 세션이 남긴 흔적을 모두 지우고, 자동 LEAVE 에 쓸 토큰을 돌려준다
+    private String forget(Session session, int gameID) {
+        SESSION_GAME_MAP.remove(session);
+        String token = SESSION_TOKEN_MAP.remove(session);
+        COMPACT_SESSIONS.remove(session);
+        GAME_SESSIONS.getOrDefault(gameID, Set.of()).remove(session);
+        // 차례를 기다리던 명령이 닫힌 세션에 보낸 것까지 치운다
+        sender.remove(session);
+        return token;
     }
 
     @OnWebSocketError
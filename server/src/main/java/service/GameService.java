@@ -106,7 +106,7 @@ public class GameService {
         return dataAccessObject.getGame(gameID);
     }
 
-    public void makeMove(int gameID, ChessMove move) throws InvalidMoveException, DataAccessException {
+    public GameData makeMove(int gameID, ChessMove move) throws InvalidMoveException, DataAccessException {
         GameData searchedGame = getGame(gameID);
         if (searchedGame.isOver()) {
             throw new DataAccessException("Game is already over.");
@@ -123,12 +123,8 @@ public class GameService {
         }
         game.makeMove(move);
 
-        boolean isOverAfterMove = false;
-
-        ChessGame.TeamColor nextTurn = game.getTeamTurn();
-        if (game.isInCheckmate(nextTurn) || game.isInStalemate(nextTurn)) {
-            isOverAfterMove = true;
-        }
+        // 체크메이트든 스테일메이트든 둘 수 있는 수가 없으면 게임 끝 (legalMoves 는 게임 안에 캐시됨)
+        boolean isOverAfterMove = game.legalMoves().isEmpty();
 
         GameData updatedGameData = new GameData(
                 searchedGame.gameID(),
@@ -138,10 +134,12 @@ public class GameService {
                 game,
                 isOverAfterMove);
         try {
-            dataAccessObject.updateGame(updatedGameData);
+            // 게임 전체 대신 둔 수 하나만 저장 (스냅샷은 DataAccess 가 가끔 새로 씀)
+            dataAccessObject.recordMove(updatedGameData, move);
         } catch (Exception e) {
             throw new DataAccessException("Failed updating game, making a move");
         }
+        return updatedGameData;
     }
 
     public void resign(String authToken, int gameID) throws DataAccessException {
@@ -2,18 +2,24 @@ package service;
 
 import dataaccess.DataAccess;
 import dataaccess.DataAccessException;
+import dataaccess.PasswordHasher;
 import model.UserData;
 import model.AuthData;
-import org.mindrot.jbcrypt.BCrypt;
 
 
 import java.util.UUID;
 
 public class UserService {
     private final DataAccess dataAccessObject;
+    private final PasswordHasher passwordHasher;
 
     public UserService(DataAccess dataAccessObject) {
+        this(dataAccessObject, PasswordHasher.shared());
+    }
+
+    public UserService(DataAccess dataAccessObject, PasswordHasher passwordHasher) {
         this.dataAccessObject = dataAccessObject;
+        this.passwordHasher = passwordHasher;
     }
 
     public RegisterResult register(RegisterRequest request) throws IllegalArgumentException, DataAccessException {
@@ -56,7 +62,7 @@ public class UserService {
         // 근데 내가 짠 Diagram에서는 먼저 아이디 체크하고 그다음에 패스워드 체크하는데.. 이렇게 해도 될려나? 이러면 달라지는거 아닌가?
         UserData searchedUserData = dataAccessObject.getUser(request.username());
         // if (searchedUserData == null || !searchedUserData.password().equals(request.password())) {
-        if (searchedUserData == null || !BCrypt.checkpw(request.password(), searchedUserData.password())) {
+        if (searchedUserData == null || !passwordHasher.check(request.password(), searchedUserData.password())) {
             throw new DataAccessException("unauthorized");
         }
         String authToken = UUID.randomUUID().toString();
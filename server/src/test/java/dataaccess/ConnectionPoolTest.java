@@ -0,0 +1,155 @@
+package dataaccess;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionPoolTest {
+
+    // 실제 DB 없이 쓰는 가짜 연결. 상태만 기억한다
+    private static final class FakeConnection {
+        boolean closed;
+        boolean autoCommit = true;
+        boolean valid = true;
+        int rollbacks;
+        // 문장을 실행하면 이 SQLState 로 실패한다. null 이면 성공
+        String failingState;
+
+        Connection proxy() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> switch (method.getName()) {
+                        case "close" -> {
+                            closed = true;
+                            yield null;
+                        }
+                        case "isClosed" -> closed;
+                        case "isValid" -> valid;
+                        case "getAutoCommit" -> autoCommit;
+                        case "setAutoCommit" -> {
+                            autoCommit = (Boolean) args[0];
+                            yield null;
+                        }
+                        case "rollback" -> {
+                            rollbacks++;
+                            yield null;
+                        }
+                        case "createStatement" -> statement();
+                        default -> null;
+                    });
+        }
+
+        private Statement statement() {
+            return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(),
+                    new Class<?>[]{Statement.class}, (proxy, method, args) -> {
+                        if (method.getName().equals("execute") && failingState != null) {
+                            throw new SQLException("statement failed", failingState);
+                        }
+                        return method.getReturnType() == boolean.class ? false : null;
+                    });
+        }
+    }
+
+    private final List<FakeConnection> opened = new ArrayList<>();
+
+    private ConnectionPool pool(int maxSize, long idleTimeout, long maxLifetime, long validationInterval) {
+        return new ConnectionPool(() -> {
+            FakeConnection fake = new FakeConnection();
+            opened.add(fake);
+            return fake.proxy();
+        }, maxSize, 50, idleTimeout, maxLifetime, validationInterval);
+    }
+
+    @Test
+    void connectionsAreReused() throws SQLException {
+        ConnectionPool pool = pool(2, 60_000, 60_000, 60_000);
+        try (Connection connection = pool.getConnection()) {
+            assertFalse(connection.isClosed());
+            assertEquals(1, pool.stats().active(), "one connection should be borrowed");
+        }
+        try (Connection connection = pool.getConnection()) {
+            assertFalse(connection.isClosed());
+            assertEquals(1, opened.size(), "returned connection should be reused");
+        }
+        ConnectionPool.Stats stats = pool.stats();
+        assertEquals(0, stats.active());
+        assertEquals(1, stats.idle());
+        assertEquals(2, stats.borrowed());
+        assertFalse(opened.get(0).closed, "pooled connection must stay open");
+    }
+
+    @Test
+    void fullPoolTimesOut() throws SQLException {
+        ConnectionPool pool = pool(1, 60_000, 60_000, 60_000);
+        try (Connection connection = pool.getConnection()) {
+            assertFalse(connection.isClosed());
+            assertThrows(SQLException.class, pool::getConnection, "second borrow should time out");
+        }
+        assertEquals(1, pool.stats().timeouts());
+        pool.getConnection().close();
+    }
+
+    @Test
+    void closedProxyRejectsUse() throws SQLException {
+        ConnectionPool pool = pool(1, 60_000, 60_000, 60_000);
+        Connection connection = pool.getConnection();
+        connection.close();
+        connection.close();
+        assertTrue(connection.isClosed());
+        assertThrows(SQLException.class, connection::createStatement);
+        assertEquals(0, pool.stats().active(), "closing twice must not release twice");
+    }
+
+    @Test
+    void openTransactionIsRolledBack() throws SQLException {
+        ConnectionPool pool = pool(1, 60_000, 60_000, 60_000);
+        try (Connection connection = pool.getConnection()) {
+            connection.setAutoCommit(false);
+        }
+        assertEquals(1, opened.get(0).rollbacks);
+        assertTrue(opened.get(0).autoCommit, "autocommit should be restored");
+    }
+
+    @Test
+    void oldAndInvalidConnectionsAreReplaced() throws SQLException, InterruptedException {
+        ConnectionPool expiring = pool(1, 60_000, 0, 60_000);
+        expiring.getConnection().close();
+        Thread.sleep(5);
+        expiring.getConnection().close();
+        assertEquals(2, opened.size(), "connection past max lifetime should be replaced");
+        assertTrue(opened.get(0).closed);
+
+        opened.clear();
+        ConnectionPool validating = pool(1, 60_000, 60_000, 0);
+        validating.getConnection().close();
+        opened.get(0).valid = false;
+        Thread.sleep(5);
+        validating.getConnection().close();
+        assertEquals(2, opened.size(), "connection failing validation should be replaced");
+        assertEquals(1, validating.stats().evicted());
+    }
+
+    @Test
+    void connectionErrorsEvictTheConnection() throws SQLException {
+        ConnectionPool pool = pool(1, 60_000, 60_000, 60_000);
+        try (Connection connection = pool.getConnection()) {
+            opened.get(0).failingState = "23000";
+            assertThrows(SQLException.class, () -> connection.createStatement().execute("INSERT"));
+        }
+        assertFalse(opened.get(0).closed, "an ordinary SQL error must not throw the connection away");
+
+        try (Connection connection = pool.getConnection()) {
+            opened.get(0).failingState = "08S01";
+            assertThrows(SQLException.class, () -> connection.createStatement().execute("SELECT 1"));
+        }
+        assertTrue(opened.get(0).closed, "a connection that lost its link should be closed on return");
+        assertEquals(0, pool.stats().idle());
+        assertEquals(1, pool.stats().evicted());
+    }
+}
@@ -1,6 +1,9 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
 import model.GameData;
 import model.UserData;
 import org.junit.jupiter.api.BeforeEach;
@@ -113,4 +116,42 @@ public class DataAccessOnMySQLGameTest {
         );
         assertEquals("game does not exist", e.getMessage(), "updateGameNegative test failed (got the wrong message)");
     }
+
+    @Test
+    void recordMovePositive() throws DataAccessException, InvalidMoveException {
+        ChessGame game = new ChessGame();
+        int id = dataAccessObject.createGame(new GameData(0, "minjoong", "sangjun", "recordMoveTest", game));
+
+        // 스냅샷 간격보다 많이 두어서 스냅샷 + 저널 재생 경로를 모두 지나가게 한다
+        int[][] shuffle = {{1, 2, 3, 3}, {8, 2, 6, 3}, {3, 3, 1, 2}, {6, 3, 8, 2}};
+        for (int i = 0; i < DataAccessOnMySQL.SNAPSHOT_INTERVAL + 3; i++) {
+            int[] m = shuffle[i % shuffle.length];
+            ChessMove move = new ChessMove(ChessPosition.of(m[0], m[1]), ChessPosition.of(m[2], m[3]), null);
+            game.makeMove(move);
+            dataAccessObject.recordMove(new GameData(id, "minjoong", "sangjun", "recordMoveTest", game), move);
+        }
+
+        GameData fetched = dataAccessObject.getGame(id);
+        assertEquals(game.toFen(), fetched.game().toFen(), "replayed game mismatch");
+        assertEquals(game.toFen(), dataAccessObject.listGames().iterator().next().game().toFen(),
+                "replayed game mismatch in listGames");
+        assertEquals("minjoong", fetched.whiteUsername(), "players must not change");
+    }
+
+    @Test
+    void recordMoveNegative() throws DataAccessException, InvalidMoveException {
+        ChessGame game = new ChessGame();
+        int id = dataAccessObject.createGame(new GameData(0, "minjoong", "sangjun", "recordMoveTest", game));
+        ChessMove move = new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null);
+        game.makeMove(move);
+        GameData afterMove = new GameData(id, "minjoong", "sangjun", "recordMoveTest", game);
+        dataAccessObject.recordMove(afterMove, move);
+
+        DataAccessException e = assertThrows(
+                DataAccessException.class,
+                () -> dataAccessObject.recordMove(afterMove, move),
+                "recording the same ply twice must fail"
+        );
+        assertEquals("move already recorded", e.getMessage(), "recordMoveNegative test failed (got the wrong message)");
+    }
 }
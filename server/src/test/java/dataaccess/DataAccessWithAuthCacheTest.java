@@ -0,0 +1,102 @@
+package dataaccess;
+
+import model.AuthData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DataAccessWithAuthCacheTest {
+
+    // getAuth 가 몇 번 불렸는지 세고, 정해 둔 만료 시각을 붙여 돌려준다
+    private static final class CountingDataAccess extends DataAccessOnMemory {
+        int lookups;
+        Instant expiresAt;
+
+        @Override
+        public AuthData getAuth(String authToken) throws DataAccessException {
+            lookups++;
+            AuthData auth = super.getAuth(authToken);
+            return auth == null ? null : new AuthData(auth.authToken(), auth.username(), expiresAt);
+        }
+    }
+
+    private CountingDataAccess stored;
+    private DataAccessWithAuthCache dataAccessObject;
+
+    @BeforeEach
+    void setUp() throws DataAccessException {
+        stored = new CountingDataAccess();
+        dataAccessObject = new DataAccessWithAuthCache(stored, 2, 60_000);
+        dataAccessObject.createAuth(new AuthData("token", "minjoong"));
+    }
+
+    @Test
+    void repeatedLookupsHitTheCache() throws DataAccessException {
+        assertEquals("minjoong", dataAccessObject.lookupUsernameWithAuth("token"));
+        assertEquals("minjoong", dataAccessObject.getAuth("token").username());
+        assertEquals(1, stored.lookups, "second lookup should not reach the delegate");
+        assertEquals(1, dataAccessObject.hits());
+        assertEquals(1, dataAccessObject.misses());
+    }
+
+    @Test
+    void unknownTokensAreNotCached() throws DataAccessException {
+        assertNull(dataAccessObject.getAuth("unknown"));
+        assertNull(dataAccessObject.getAuth("unknown"));
+        assertEquals(2, stored.lookups, "unknown tokens should always be checked");
+    }
+
+    @Test
+    void deleteAuthInvalidates() throws DataAccessException {
+        dataAccessObject.getAuth("token");
+        dataAccessObject.deleteAuth("token");
+        assertNull(dataAccessObject.getAuth("token"), "logged out token must not be served from the cache");
+    }
+
+    @Test
+    void lookupDuringDeleteIsNotKept() throws DataAccessException {
+        DataAccessWithAuthCache[] cache = new DataAccessWithAuthCache[1];
+        // DELETE 가 커밋되기 전에 다른 요청이 아직 남은 행을 읽는 경우
+        DataAccessOnMemory racing = new DataAccessOnMemory() {
+            @Override
+            public void deleteAuth(String authToken) throws DataAccessException {
+                cache[0].getAuth(authToken);
+                super.deleteAuth(authToken);
+            }
+        };
+        cache[0] = new DataAccessWithAuthCache(racing, 2, 60_000);
+        cache[0].createAuth(new AuthData("token", "minjoong"));
+
+        cache[0].deleteAuth("token");
+        assertNull(cache[0].getAuth("token"), "a token read while it was being deleted must not stay cached");
+    }
+
+    @Test
+    void clearAllInvalidates() throws DataAccessException {
+        dataAccessObject.getAuth("token");
+        dataAccessObject.clearAll();
+        assertNull(dataAccessObject.getAuth("token"), "cleared token must not be served from the cache");
+        assertEquals(0, dataAccessObject.cachedTokens());
+    }
+
+    @Test
+    void entriesExpireWithTheToken() throws DataAccessException {
+        stored.expiresAt = Instant.now().minusSeconds(1);
+        dataAccessObject.getAuth("token");
+        dataAccessObject.getAuth("token");
+        assertEquals(2, stored.lookups, "a token past expires_at must not be cached");
+    }
+
+    @Test
+    void sizeIsBounded() throws DataAccessException {
+        dataAccessObject.createAuth(new AuthData("token2", "sangjun"));
+        dataAccessObject.createAuth(new AuthData("token3", "sangjun"));
+        dataAccessObject.getAuth("token");
+        dataAccessObject.getAuth("token2");
+        dataAccessObject.getAuth("token3");
+        assertEquals(2, dataAccessObject.cachedTokens(), "cache should stay within maxTokens");
+    }
+}
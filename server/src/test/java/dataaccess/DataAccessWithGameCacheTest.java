@@ -0,0 +1,134 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import model.GameData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DataAccessWithGameCacheTest {
+
+    private DataAccessOnMemory stored;
+    private DataAccessWithGameCache dataAccessObject;
+
+    @BeforeEach
+    void setUp() {
+        stored = new DataAccessOnMemory();
+        dataAccessObject = new DataAccessWithGameCache(stored, 2, 60_000, 4);
+    }
+
+    @AfterEach
+    void tearDown() throws DataAccessException {
+        dataAccessObject.close();
+    }
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(ChessPosition.of(startRow, startCol), ChessPosition.of(endRow, endCol), null);
+    }
+
+    @Test
+    void recordMoveIsReadBackBeforeAndAfterFlush() throws DataAccessException, InvalidMoveException {
+        int id = dataAccessObject.createGame(new GameData(0, "white", "black", "cacheTest", new ChessGame()));
+
+        GameData game = dataAccessObject.getGame(id);
+        ChessMove move = move(2, 5, 4, 5);
+        game.game().makeMove(move);
+        dataAccessObject.recordMove(game, move);
+
+        assertEquals(game.game(), dataAccessObject.getGame(id).game(), "cache should hold the move at once");
+        dataAccessObject.flush();
+        assertEquals(0, dataAccessObject.pendingWrites(), "flush should drain the queue");
+        assertEquals(game.game(), stored.getGame(id).game(), "move should reach the delegate after flush");
+    }
+
+    @Test
+    void readsAreCopies() throws DataAccessException, InvalidMoveException {
+        int id = dataAccessObject.createGame(new GameData(0, null, null, "cacheTest", new ChessGame()));
+
+        dataAccessObject.getGame(id).game().makeMove(move(2, 5, 4, 5));
+        assertEquals(new ChessGame(), dataAccessObject.getGame(id).game(), "changing a returned game must not change the cache");
+    }
+
+    @Test
+    void sameMoveTwiceIsRejected() throws DataAccessException, InvalidMoveException {
+        int id = dataAccessObject.createGame(new GameData(0, "white", "black", "cacheTest", new ChessGame()));
+        GameData game = dataAccessObject.getGame(id);
+        ChessMove move = move(2, 5, 4, 5);
+        game.game().makeMove(move);
+        dataAccessObject.recordMove(game, move);
+
+        DataAccessException e = assertThrows(DataAccessException.class, () -> dataAccessObject.recordMove(game, move));
+        assertEquals("move already recorded", e.getMessage());
+    }
+
+    @Test
+    void missingGameIsRejected() {
+        GameData missing = new GameData(9999, null, null, "X", new ChessGame());
+        DataAccessException e = assertThrows(DataAccessException.class, () -> dataAccessObject.updateGame(missing));
+        assertEquals("game does not exist", e.getMessage());
+    }
+
+    @Test
+    void leastRecentlyUsedGamesAreEvicted() throws DataAccessException {
+        int first = dataAccessObject.createGame(new GameData(0, null, null, "first", new ChessGame()));
+        dataAccessObject.createGame(new GameData(0, null, null, "second", new ChessGame()));
+        dataAccessObject.getGame(first);
+        dataAccessObject.createGame(new GameData(0, null, null, "third", new ChessGame()));
+
+        assertEquals(2, dataAccessObject.cachedGames(), "cache should stay within maxGames");
+        assertEquals("first", dataAccessObject.getGame(first).gameName(), "evicted games are read from the delegate");
+    }
+
+    @Test
+    void finishedGamesLeaveTheCacheOnceWritten() throws DataAccessException {
+        int id = dataAccessObject.createGame(new GameData(0, "white", "black", "cacheTest", new ChessGame()));
+        GameData game = dataAccessObject.getGame(id);
+        dataAccessObject.updateGame(new GameData(id, "white", "black", "cacheTest", game.game(), true));
+        dataAccessObject.flush();
+
+        assertEquals(0, dataAccessObject.cachedGames(), "finished game should be evicted");
+        assertTrue(dataAccessObject.getGame(id).isOver(), "finished state should be stored");
+    }
+
+    @Test
+    void failedJournalWriteFallsBackToSnapshots() throws DataAccessException, InvalidMoveException {
+        List<Integer> journaled = new ArrayList<>();
+        // 첫 수의 저널 쓰기만 실패하는 DB
+        DataAccessOnMemory flaky = new DataAccessOnMemory() {
+            @Override
+            public void recordMove(GameData game, ChessMove move) throws DataAccessException {
+                if (game.game().getPly() == 1) {
+                    throw new DataAccessException("write failed");
+                }
+                journaled.add(game.game().getPly());
+                super.recordMove(game, move);
+            }
+        };
+        DataAccessWithGameCache cache = new DataAccessWithGameCache(flaky, 2, 60_000, 4);
+        try {
+            int id = cache.createGame(new GameData(0, "white", "black", "cacheTest", new ChessGame()));
+            GameData game = cache.getGame(id);
+            ChessMove first = move(2, 5, 4, 5);
+            game.game().makeMove(first);
+            cache.recordMove(game, first);
+            ChessMove second = move(7, 5, 5, 5);
+            game.game().makeMove(second);
+            cache.recordMove(game, second);
+            cache.flush();
+
+            assertEquals(List.of(), journaled, "no move may be journaled after a missing one");
+            assertEquals(game.game(), flaky.getGame(id).game(), "the latest state should be written as a snapshot");
+            assertEquals(0, cache.cachedGames(), "a game whose write failed should leave the cache");
+        } finally {
+            cache.close();
+        }
+    }
+}
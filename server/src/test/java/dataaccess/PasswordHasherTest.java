@@ -0,0 +1,49 @@
+package dataaccess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordHasherTest {
+
+    @Test
+    void hashAndCheck() throws DataAccessException {
+        PasswordHasher hasher = new PasswordHasher(2, 4, 4);
+        String hash = hasher.hash("password");
+
+        assertNotEquals("password", hash, "password not hashed");
+        assertTrue(hasher.check("password", hash), "right password should match");
+        assertFalse(hasher.check("wrong", hash), "wrong password should not match");
+        assertEquals(3, hasher.stats().completed());
+        assertEquals(0, hasher.stats().rejected());
+    }
+
+    @Test
+    void fullPoolRejectsAtOnce() throws Exception {
+        // 스레드 하나, 대기열 없음: 해싱 하나가 도는 동안 다음 요청은 바로 거절
+        PasswordHasher hasher = new PasswordHasher(1, 0, 14);
+        Thread slow = new Thread(() -> {
+            try {
+                hasher.hash("password");
+            } catch (DataAccessException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        slow.start();
+        // 첫 해싱이 실제로 스레드를 잡을 때까지 기다린다
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (hasher.stats().running() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+
+        long start = System.nanoTime();
+        DataAccessException busy = assertThrows(DataAccessException.class, () -> hasher.hash("another"),
+                "hash should be refused while the pool is full");
+        assertEquals("server busy", busy.getMessage());
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(100), "rejection should not wait");
+        assertEquals(1, hasher.stats().rejected());
+        slow.join();
+    }
+}
@@ -0,0 +1,114 @@
+package server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameCommandExecutorTest {
+
+    private final GameCommandExecutor executor = new GameCommandExecutor(Executors.newFixedThreadPool(4));
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void commandsForOneGameRunInOrder() throws InterruptedException {
+        int commands = 1000;
+        List<Integer> seen = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(commands);
+        // 한 스레드가 넣은 순서 그대로 실행되어야 한다
+        for (int i = 0; i < commands; i++) {
+            int value = i;
+            executor.execute(7, () -> {
+                seen.add(value);
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS), "commands did not finish");
+        for (int i = 0; i < commands; i++) {
+            assertEquals(i, seen.get(i), "commands for one game ran out of order");
+        }
+    }
+
+    @Test
+    void commandsForOneGameNeverOverlap() throws InterruptedException {
+        int[] counter = new int[1];
+        int commands = 2000;
+        CountDownLatch done = new CountDownLatch(commands);
+        Thread[] submitters = new Thread[4];
+        for (int t = 0; t < submitters.length; t++) {
+            submitters[t] = new Thread(() -> {
+                for (int i = 0; i < commands / submitters.length; i++) {
+                    // 동기화 없는 증가라 겹쳐 실행되면 값이 모자란다
+                    executor.execute(1, () -> {
+                        counter[0]++;
+                        done.countDown();
+                    });
+                }
+            });
+            submitters[t].start();
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS), "commands did not finish");
+        Thread.sleep(50);
+        assertEquals(commands, counter[0], "commands for one game overlapped");
+        assertEquals(0, executor.activeGames(), "drained mailboxes should be dropped");
+    }
+
+    @Test
+    void differentGamesRunInParallel() throws InterruptedException {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        CountDownLatch done = new CountDownLatch(2);
+        for (int gameID = 1; gameID <= 2; gameID++) {
+            executor.execute(gameID, () -> {
+                bothStarted.countDown();
+                try {
+                    // 다른 게임이 동시에 돌지 않으면 여기서 시간 초과
+                    if (bothStarted.await(5, TimeUnit.SECONDS)) {
+                        done.countDown();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS), "two games should run at the same time");
+    }
+
+    @Test
+    void failingCommandDoesNotStopTheGame() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        executor.execute(3, () -> {
+            throw new IllegalStateException("boom");
+        });
+        executor.execute(3, done::countDown);
+        assertTrue(done.await(5, TimeUnit.SECONDS), "command after a failure should still run");
+    }
+
+    @Test
+    void closedExecutorRejectsWork() {
+        executor.close();
+        assertFalse(executor.execute(4, () -> fail("must not run after close")), "closed executor should refuse work");
+        assertEquals(0, executor.activeGames());
+    }
+
+    @Test
+    void refusedGameIsNotLeftStuck() throws InterruptedException {
+        ExecutorService workers = Executors.newSingleThreadExecutor();
+        workers.shutdown();
+        // close() 를 거치지 않고 일꾼 풀만 먼저 멈춘 경우
+        GameCommandExecutor stopped = new GameCommandExecutor(workers);
+        assertFalse(stopped.execute(5, () -> { }), "refused task should be reported");
+        assertEquals(0, stopped.activeGames(), "the refused game's mailbox should be dropped");
+    }
+}
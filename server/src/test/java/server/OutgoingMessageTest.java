@@ -0,0 +1,54 @@
+package server;
+
+import chess.ChessGame;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+import websocket.messages.LoadGameMessage;
+import websocket.messages.NotificationMessage;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OutgoingMessageTest {
+
+    private static final Gson GSON = new Gson();
+
+    @Test
+    void jsonIsBuiltOnce() {
+        OutgoingMessage outgoing = new OutgoingMessage(new NotificationMessage("hello"));
+        String first = outgoing.json(GSON, false);
+        assertSame(first, outgoing.json(GSON, false), "second recipient should reuse the JSON");
+        assertEquals(GSON.toJson(new NotificationMessage("hello")), first);
+        // 압축 형태가 없는 메시지는 압축 세션에도 같은 글을 보낸다
+        assertSame(first, outgoing.json(GSON, true));
+    }
+
+    @Test
+    void payloadViewsShareBytesButNotPosition() {
+        OutgoingMessage outgoing = new OutgoingMessage(new NotificationMessage("hello"));
+        ByteBuffer first = outgoing.payload(GSON, false);
+        ByteBuffer second = outgoing.payload(GSON, false);
+        assertNotSame(first, second);
+        assertTrue(first.isReadOnly(), "recipients must not be able to change the shared bytes");
+
+        // 한 연결이 다 읽어도 다른 연결의 뷰는 그대로다
+        byte[] read = new byte[first.remaining()];
+        first.get(read);
+        assertEquals(0, first.remaining());
+        assertEquals(read.length, second.remaining(), "second view was consumed by the first");
+        assertEquals(outgoing.json(GSON, false), new String(read, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void loadGameHasSeparateCompactForm() {
+        ChessGame game = new ChessGame();
+        OutgoingMessage outgoing = new OutgoingMessage(new LoadGameMessage(game, null));
+        assertEquals(GSON.toJson(new LoadGameMessage(game, null)), outgoing.json(GSON, false));
+        assertEquals(GSON.toJson(LoadGameMessage.compact(game, null)), outgoing.json(GSON, true));
+        assertSame(outgoing.json(GSON, true), outgoing.json(GSON, true));
+        assertEquals(outgoing.json(GSON, true),
+                StandardCharsets.UTF_8.decode(outgoing.payload(GSON, true)).toString());
+    }
+}
@@ -0,0 +1,53 @@
+package server;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VirtualThreadPoolTest {
+
+    @Test
+    void tasksRunOnVirtualThreads() throws Exception {
+        VirtualThreadPool pool = new VirtualThreadPool();
+        pool.start();
+        AtomicBoolean virtual = new AtomicBoolean();
+        CountDownLatch done = new CountDownLatch(1);
+        pool.execute(() -> {
+            virtual.set(Thread.currentThread().isVirtual());
+            done.countDown();
+        });
+        assertTrue(done.await(5, TimeUnit.SECONDS), "task did not run");
+        assertTrue(virtual.get(), "task should run on a virtual thread");
+        assertFalse(pool.isLowOnThreads());
+        pool.stop();
+    }
+
+    @Test
+    void manyBlockingTasksRunAtOnce() throws Exception {
+        VirtualThreadPool pool = new VirtualThreadPool();
+        pool.start();
+        int tasks = 2000;
+        CountDownLatch allStarted = new CountDownLatch(tasks);
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < tasks; i++) {
+            pool.execute(() -> {
+                allStarted.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        // 플랫폼 스레드 풀이었다면 풀 크기에서 막혔을 것
+        assertTrue(allStarted.await(5, TimeUnit.SECONDS), "blocked tasks should not exhaust the pool");
+        assertEquals(tasks, pool.getThreads());
+        release.countDown();
+        pool.stop();
+        assertTrue(pool.isStopped());
+    }
+}
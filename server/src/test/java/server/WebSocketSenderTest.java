@@ -0,0 +1,136 @@
+package server;
+
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WebSocketSenderTest {
+
+    // 쓰기를 바로 끝내지 않고 붙잡아 두는 가짜 연결. finishWrite() 를 불러야 다음 프레임으로 넘어간다
+    private static final class HeldTransport implements WebSocketSender.Transport {
+        final List<String> written = new ArrayList<>();
+        WriteCallback pending;
+
+        @Override
+        public void write(Session session, WebSocketSender.Frame frame, WriteCallback callback) {
+            written.add(frame.json());
+            pending = callback;
+        }
+
+        void finishWrite() {
+            WriteCallback callback = pending;
+            pending = null;
+            callback.writeSuccess();
+        }
+    }
+
+    private static final class FakeSession {
+        final AtomicBoolean disconnected = new AtomicBoolean();
+        final Session session = (Session) Proxy.newProxyInstance(
+                Session.class.getClassLoader(), new Class<?>[]{Session.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "isOpen" -> !disconnected.get();
+                    case "disconnect" -> {
+                        disconnected.set(true);
+                        yield null;
+                    }
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> null;
+                });
+    }
+
+    private static WebSocketSender.Frame frame(String json, boolean loadGame) {
+        return new WebSocketSender.Frame(json, ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8)), loadGame);
+    }
+
+    @Test
+    void slowSessionDoesNotBlockOthers() {
+        HeldTransport transport = new HeldTransport();
+        WebSocketSender sender = new WebSocketSender(8, 60_000, transport);
+        FakeSession slow = new FakeSession();
+        FakeSession fast = new FakeSession();
+
+        sender.send(slow.session, frame("a", false));
+        sender.send(slow.session, frame("b", false));
+        // 느린 세션의 첫 쓰기가 끝나지 않았어도 send 는 바로 돌아온다
+        assertEquals(List.of("a"), transport.written);
+        assertEquals(1, sender.stats().queuedFrames());
+
+        WriteCallback slowWrite = transport.pending;
+        sender.send(fast.session, frame("c", false));
+        assertEquals(List.of("a", "c"), transport.written);
+
+        transport.finishWrite();
+        slowWrite.writeSuccess();
+        assertEquals(List.of("a", "c", "b"), transport.written, "queued frame should go out after the first one");
+        transport.finishWrite();
+        assertEquals(3, sender.stats().sent());
+        assertEquals(0, sender.stats().queuedFrames());
+    }
+
+    @Test
+    void newerLoadGameReplacesQueuedOne() {
+        HeldTransport transport = new HeldTransport();
+        WebSocketSender sender = new WebSocketSender(8, 60_000, transport);
+        FakeSession observer = new FakeSession();
+
+        sender.send(observer.session, frame("board1", true));
+        sender.send(observer.session, frame("board2", true));
+        sender.send(observer.session, frame("note", false));
+        sender.send(observer.session, frame("board3", true));
+
+        // board1 은 이미 쓰는 중이라 그대로, 줄에 있던 board2 만 board3 으로 바뀐다
+        while (transport.pending != null) {
+            transport.finishWrite();
+        }
+        assertEquals(List.of("board1", "note", "board3"), transport.written);
+        assertEquals(1, sender.stats().coalesced());
+        assertEquals(0, sender.stats().dropped());
+    }
+
+    @Test
+    void fullOutboxDisconnectsSession() {
+        HeldTransport transport = new HeldTransport();
+        WebSocketSender sender = new WebSocketSender(2, 60_000, transport);
+        FakeSession slow = new FakeSession();
+
+        sender.send(slow.session, frame("writing", false));
+        sender.send(slow.session, frame("q1", false));
+        sender.send(slow.session, frame("q2", false));
+        assertFalse(slow.disconnected.get(), "outbox is full but not over");
+
+        sender.send(slow.session, frame("q3", false));
+        assertTrue(slow.disconnected.get(), "a client that cannot keep up should be cut off");
+        WebSocketSender.Stats stats = sender.stats();
+        assertEquals(1, stats.slowDisconnects());
+        assertEquals(3, stats.dropped(), "q1, q2 and q3 should be dropped");
+        assertEquals(0, stats.queuedFrames());
+        assertEquals(2, stats.maxQueueDepth());
+
+        sender.remove(slow.session);
+        assertEquals(0, sender.stats().sessions());
+    }
+
+    @Test
+    void stalledWriteDisconnectsSession() throws InterruptedException {
+        HeldTransport transport = new HeldTransport();
+        WebSocketSender sender = new WebSocketSender(64, 20, transport);
+        FakeSession stalled = new FakeSession();
+
+        sender.send(stalled.session, frame("writing", false));
+        Thread.sleep(50);
+        sender.send(stalled.session, frame("next", false));
+        assertTrue(stalled.disconnected.get(), "a write stuck longer than the limit should disconnect");
+        assertEquals(1, sender.stats().slowDisconnects());
+    }
+}
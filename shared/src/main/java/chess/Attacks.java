@@ -0,0 +1,218 @@
+package chess;
+
+/**
+ * Attack sets for every piece type as bitboards, and the
+ * "is this square attacked by that team" test built on them. Attacks are found
+ * by looking outward from the target square instead of generating every move
+ * of every opposing piece.
+ */
+public final class Attacks {
+
+    /*
+     * 방향 번호. 칸 번호가 커지는 방향(위, 오른쪽 위 등)이 앞 넷, 작아지는 방향이 뒤 넷이라
+     * 막는 말을 찾을 때 앞쪽은 가장 낮은 비트, 뒤쪽은 가장 높은 비트를 보면 된다.
+     */
+    static final int NORTH = 0;
+    static final int EAST = 1;
+    static final int NORTH_EAST = 2;
+    static final int NORTH_WEST = 3;
+    static final int SOUTH = 4;
+    static final int WEST = 5;
+    static final int SOUTH_WEST = 6;
+    static final int SOUTH_EAST = 7;
+
+    private static final int[][] DIRECTION_STEPS = {
+            { 1, 0 }, { 0, 1 }, { 1, 1 }, { 1, -1 },
+            { -1, 0 }, { 0, -1 }, { -1, -1 }, { -1, 1 }
+    };
+    static final int[] ORTHOGONAL_DIRECTIONS = { NORTH, EAST, SOUTH, WEST };
+    static final int[] DIAGONAL_DIRECTIONS = { NORTH_EAST, NORTH_WEST, SOUTH_WEST, SOUTH_EAST };
+
+    private static final int[][] KNIGHT_OFFSETS = {
+            { 1, -2 }, { 2, -1 }, { 2, 1 }, { 1, 2 },
+            { -1, 2 }, { -2, 1 }, { -2, -1 }, { -1, -2 }
+    };
+
+    /* 클래스 로딩 때 한 번 만드는 표 */
+    private static final long[] KNIGHT_ATTACKS = new long[Bitboards.SQUARES];
+    private static final long[] KING_ATTACKS = new long[Bitboards.SQUARES];
+    private static final long[][] PAWN_ATTACKS = new long[2][Bitboards.SQUARES];
+    /* [방향][칸]: 그 칸에서 보드 끝까지의 칸들 */
+    private static final long[][] RAYS = new long[8][Bitboards.SQUARES];
+    private static final long[][] BETWEEN = new long[Bitboards.SQUARES][Bitboards.SQUARES];
+
+    static {
+        for (int square = 0; square < Bitboards.SQUARES; square++) {
+            int row = Bitboards.row(square);
+            int col = Bitboards.column(square);
+            for (int[] offset : KNIGHT_OFFSETS) {
+                KNIGHT_ATTACKS[square] |= squareBit(row + offset[0], col + offset[1]);
+            }
+            for (int[] step : DIRECTION_STEPS) {
+                KING_ATTACKS[square] |= squareBit(row + step[0], col + step[1]);
+            }
+            PAWN_ATTACKS[ChessGame.TeamColor.WHITE.ordinal()][square] = squareBit(row + 1, col - 1) | squareBit(row + 1, col + 1);
+            PAWN_ATTACKS[ChessGame.TeamColor.BLACK.ordinal()][square] = squareBit(row - 1, col - 1) | squareBit(row - 1, col + 1);
+
+            for (int direction = 0; direction < DIRECTION_STEPS.length; direction++) {
+                int[] step = DIRECTION_STEPS[direction];
+                long between = 0L;
+                for (int r = row + step[0], c = col + step[1]; r >= 1 && r <= 8 && c >= 1 && c <= 8; r += step[0], c += step[1]) {
+                    int target = Bitboards.square(r, c);
+                    RAYS[direction][square] |= Bitboards.bit(target);
+                    BETWEEN[square][target] = between;
+                    between |= Bitboards.bit(target);
+                }
+            }
+        }
+    }
+
+    private Attacks() {
+    }
+
+    /**
+     * Determines if any piece of the given team attacks a square
+     *
+     * @param board  the board to look at
+     * @param square the square that may be attacked
+     * @param byColor the attacking team
+     * @return True if a piece of byColor could capture on the square
+     */
+    public static boolean isSquareAttacked(ChessBoard board, ChessPosition square, ChessGame.TeamColor byColor) {
+        return isSquareAttacked(board, square.getSquare(), byColor);
+    }
+
+    static boolean isSquareAttacked(ChessBoard board, int square, ChessGame.TeamColor byColor) {
+        return isSquareAttacked(board, square, byColor, board.getOccupancy(), 0L);
+    }
+
+    /**
+     * Same test with a substitute occupancy, used for king moves where the king
+     * itself must not block rays. Pieces on the ignored squares never attack.
+     */
+    static boolean isSquareAttacked(ChessBoard board, int square, ChessGame.TeamColor byColor,
+                                    long occupied, long ignored) {
+        /* 폰: 막는 쪽 폰이 대각선으로 잡는 칸에 공격하는 쪽 폰이 있으면 된다 */
+        long pawns = board.getBitboard(byColor, ChessPiece.PieceType.PAWN) & ~ignored;
+        if ((pawnAttacks(square, opposite(byColor)) & pawns) != 0) {
+            return true;
+        }
+        long knights = board.getBitboard(byColor, ChessPiece.PieceType.KNIGHT) & ~ignored;
+        if ((knightAttacks(square) & knights) != 0) {
+            return true;
+        }
+        long kings = board.getBitboard(byColor, ChessPiece.PieceType.KING) & ~ignored;
+        if ((kingAttacks(square) & kings) != 0) {
+            return true;
+        }
+
+        long queens = board.getBitboard(byColor, ChessPiece.PieceType.QUEEN);
+        long rooksAndQueens = (board.getBitboard(byColor, ChessPiece.PieceType.ROOK) | queens) & ~ignored;
+        if (rooksAndQueens != 0 && (rookAttacks(square, occupied) & rooksAndQueens) != 0) {
+            return true;
+        }
+        long bishopsAndQueens = (board.getBitboard(byColor, ChessPiece.PieceType.BISHOP) | queens) & ~ignored;
+        return bishopsAndQueens != 0 && (bishopAttacks(square, occupied) & bishopsAndQueens) != 0;
+    }
+
+    /**
+     * @return bitboard of every piece of byColor that attacks the square
+     */
+    static long attackersOf(ChessBoard board, int square, ChessGame.TeamColor byColor, long occupied) {
+        long queens = board.getBitboard(byColor, ChessPiece.PieceType.QUEEN);
+        return (pawnAttacks(square, opposite(byColor)) & board.getBitboard(byColor, ChessPiece.PieceType.PAWN))
+                | (knightAttacks(square) & board.getBitboard(byColor, ChessPiece.PieceType.KNIGHT))
+                | (kingAttacks(square) & board.getBitboard(byColor, ChessPiece.PieceType.KING))
+                | (rookAttacks(square, occupied) & (board.getBitboard(byColor, ChessPiece.PieceType.ROOK) | queens))
+                | (bishopAttacks(square, occupied) & (board.getBitboard(byColor, ChessPiece.PieceType.BISHOP) | queens));
+    }
+
+    static long knightAttacks(int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    static long kingAttacks(int square) {
+        return KING_ATTACKS[square];
+    }
+
+    /**
+     * @return squares a pawn of the given color on the square could capture on
+     */
+    static long pawnAttacks(int square, ChessGame.TeamColor color) {
+        return PAWN_ATTACKS[color.ordinal()][square];
+    }
+
+    /**
+     * @return squares a rook on the square reaches; the first piece on each ray is included
+     */
+    static long rookAttacks(int square, long occupied) {
+        return Magics.rookAttacks(square, occupied);
+    }
+
+    static long bishopAttacks(int square, long occupied) {
+        return Magics.bishopAttacks(square, occupied);
+    }
+
+    static long queenAttacks(int square, long occupied) {
+        return Magics.rookAttacks(square, occupied) | Magics.bishopAttacks(square, occupied);
+    }
+
+    /**
+     * Sliding attacks found by scanning the rays, used to build the magic tables
+     */
+    static long slidingAttacks(int square, long occupied, int[] directions) {
+        long attacks = 0L;
+        for (int direction : directions) {
+            attacks |= rayAttacks(square, occupied, direction);
+        }
+        return attacks;
+    }
+
+    /**
+     * @return squares along the given directions whose occupancy changes the
+     * attacks; the last square of each ray never blocks anything, so it is left out
+     */
+    static long relevantOccupancy(int square, int[] directions) {
+        long mask = 0L;
+        for (int direction : directions) {
+            long ray = RAYS[direction][square];
+            if (ray != 0) {
+                long edge = direction < SOUTH ? Long.highestOneBit(ray) : Long.lowestOneBit(ray);
+                mask |= ray & ~edge;
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * @return squares strictly between two squares on the same rank, file or
+     * diagonal, or 0 if they are not aligned
+     */
+    static long between(int from, int to) {
+        return BETWEEN[from][to];
+    }
+
+    static ChessGame.TeamColor opposite(ChessGame.TeamColor color) {
+        return color == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+    }
+
+    /* 그 방향으로 처음 만나는 말까지 (말이 있는 칸 포함) */
+    private static long rayAttacks(int square, long occupied, int direction) {
+        long ray = RAYS[direction][square];
+        long blockers = ray & occupied;
+        if (blockers == 0) {
+            return ray;
+        }
+        int blocker = direction < SOUTH
+                ? Long.numberOfTrailingZeros(blockers)
+                : 63 - Long.numberOfLeadingZeros(blockers);
+        return ray ^ RAYS[direction][blocker];
+    }
+
+    private static long squareBit(int row, int col) {
+        if (row < 1 || row > 8 || col < 1 || col > 8) {
+            return 0L;
+        }
+        return Bitboards.bit(Bitboards.square(row, col));
+    }
+}
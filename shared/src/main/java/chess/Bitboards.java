@@ -0,0 +1,52 @@
+package chess;
+
+/**
+ * Helpers for the 64-bit bitboard representation used inside ChessBoard.
+ * <p>
+ * Square index 0 is (row 1, column 1) and index 63 is (row 8, column 8),
+ * so bit n of a bitboard is set when square n is occupied.
+ */
+public final class Bitboards {
+
+    public static final int SQUARES = 64;
+
+    private Bitboards() {
+    }
+
+    /**
+     * @return square index (0..63) for a 1-based row and column
+     */
+    public static int square(int row, int col) {
+        return (row - 1) * 8 + (col - 1);
+    }
+
+    /**
+     * @return 1-based row of a square index
+     */
+    public static int row(int square) {
+        return (square >>> 3) + 1;
+    }
+
+    /**
+     * @return 1-based column of a square index
+     */
+    public static int column(int square) {
+        return (square & 7) + 1;
+    }
+
+    public static long bit(int square) {
+        return 1L << square;
+    }
+
+    /**
+     * @return the shared ChessPosition for a square index
+     */
+    public static ChessPosition position(int square) {
+        return ChessPosition.ofSquare(square);
+    }
+
+    /* 비트보드 배열 인덱스: 색깔별로 6칸씩 */
+    static int pieceIndex(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * 6 + type.ordinal();
+    }
+}
@@ -12,6 +12,36 @@ import java.util.Objects;
 public class ChessBoard {
     private ChessPiece[][] board;
 
+    /*
+     * 비트보드: 색깔 x 기물 종류마다 long 하나, 색깔별 점유 마스크 하나씩.
+     * transient 라서 Gson 으로 직렬화되지 않고, 처음 쓸 때 board 배열에서 다시 만든다.
+     */
+    private transient long[] pieceBitboards;
+    private transient long[] colorBitboards;
+
+    /* 색깔별 킹 위치 (칸 번호, 없으면 -1). 비트보드와 같이 만들어지고 같이 갱신된다 */
+    private transient int[] kingSquares;
+
+    /* 기물 배치만으로 만든 Zobrist 키. 말을 놓거나 뺄 때마다 XOR 로 갱신 */
+    private transient long pieceKey;
+
+    /* 칸이 바뀔 때마다 증가. ChessGame 이 캐시한 합법 수가 아직 유효한지 확인하는 용도 */
+    private transient int version;
+
+    /*
+     * makeMove/unmakeMove 되돌리기 기록 (스택).
+     * 한 수당 int 하나(칸 번호 + 플래그)와 움직인 말, 잡힌 말 참조만 저장한다.
+     */
+    private static final int UNDO_PROMOTION = 1;
+    private static final int UNDO_CASTLING = 1 << 1;
+    private static final int UNDO_PIECE_HAD_MOVED = 1 << 2;
+    private static final int UNDO_ROOK_HAD_MOVED = 1 << 3;
+
+    private transient int[] undoInfo;
+    private transient ChessPiece[] undoMoved;
+    private transient ChessPiece[] undoCaptured;
+    private transient int undoSize;
+
     public ChessBoard() {
         board = new ChessPiece[8][8];
     }
@@ -23,9 +53,7 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        int row = position.getRow() - 1;
-        int col = position.getColumn() - 1;
-        board[row][col] = piece;
+        setPiece(position.getSquare(), piece);
     }
 
     /**
@@ -42,6 +70,327 @@ public class ChessBoard {
         return board[row][col];
     }
 
+    ChessPiece getPiece(int square) {
+        return board[square >>> 3][square & 7];
+    }
+
+    /* 배열과 비트보드를 같이 갱신 */
+    void setPiece(int square, ChessPiece piece) {
+        int row = square >>> 3;
+        int col = square & 7;
+        version++;
+        if (pieceBitboards != null) {
+            long bit = Bitboards.bit(square);
+            ChessPiece old = board[row][col];
+            if (old != null) {
+                pieceBitboards[Bitboards.pieceIndex(old.getTeamColor(), old.getPieceType())] &= ~bit;
+                colorBitboards[old.getTeamColor().ordinal()] &= ~bit;
+                pieceKey ^= Zobrist.pieceKey(old, square);
+            }
+            if (piece != null) {
+                pieceBitboards[Bitboards.pieceIndex(piece.getTeamColor(), piece.getPieceType())] |= bit;
+                colorBitboards[piece.getTeamColor().ordinal()] |= bit;
+                pieceKey ^= Zobrist.pieceKey(piece, square);
+            }
+            if (old != null && old.getPieceType() == ChessPiece.PieceType.KING) {
+                updateKingSquare(old.getTeamColor());
+            }
+            if (piece != null && piece.getPieceType() == ChessPiece.PieceType.KING) {
+                updateKingSquare(piece.getTeamColor());
+            }
+        }
+        board[row][col] = piece;
+    }
+
+    int version() {
+        return version;
+    }
+
+    private void updateKingSquare(ChessGame.TeamColor color) {
+        long kings = pieceBitboards[Bitboards.pieceIndex(color, ChessPiece.PieceType.KING)];
+        kingSquares[color.ordinal()] = kings == 0 ? -1 : Long.numberOfTrailingZeros(kings);
+    }
+
+    /**
+     * @return square index of the given team's king, or -1 if it has no king
+     */
+    int kingSquare(ChessGame.TeamColor color) {
+        ensureBitboards();
+        return kingSquares[color.ordinal()];
+    }
+
+    /**
+     * @return position of the given team's king, or null if it has no king
+     */
+    public ChessPosition getKingPosition(ChessGame.TeamColor color) {
+        int square = kingSquare(color);
+        return square < 0 ? null : Bitboards.position(square);
+    }
+
+    /**
+     * Plays a move on this board in place so it can be taken back with
+     * {@link #unmakeMove()}. The move is not validated; castling and en passant
+     * are recognised from the king/pawn displacement the same way
+     * ChessGame.makeMove does.
+     *
+     * @param move the move to play
+     */
+    public void makeMove(ChessMove move) {
+        makeMove(encodeMove(move));
+    }
+
+    /**
+     * Encodes a move as a {@link Move} int, working out its kind (castling,
+     * en passant, double pawn push, promotion) from the piece being moved.
+     */
+    int encodeMove(ChessMove move) {
+        ChessPosition start = move.getStartPosition();
+        ChessPosition end = move.getEndPosition();
+        int from = start.getSquare();
+        int to = end.getSquare();
+        ChessPiece piece = getPiece(from);
+        int columnDistance = end.getColumn() - start.getColumn();
+
+        if (piece.getPieceType() == ChessPiece.PieceType.PAWN) {
+            if (move.getPromotionPiece() != null) {
+                return Move.of(from, to, Move.promotionKind(move.getPromotionPiece()));
+            }
+            /* 앙파상: 폰이 대각선으로 빈 칸에 가면 옆에 있는 폰을 잡는다 */
+            if (columnDistance != 0 && getPiece(to) == null) {
+                return Move.of(from, to, Move.EN_PASSANT);
+            }
+            if (Math.abs(end.getRow() - start.getRow()) == 2) {
+                return Move.of(from, to, Move.DOUBLE_PAWN_PUSH);
+            }
+        }
+        /* 캐슬링: 킹이 두 칸 움직이면 룩도 같이 옮긴다 */
+        if (piece.getPieceType() == ChessPiece.PieceType.KING && Math.abs(columnDistance) == 2) {
+            return Move.of(from, to, Move.CASTLING);
+        }
+        return Move.of(from, to);
+    }
+
+    /**
+     * Plays a {@link Move}-encoded move in place; see {@link #makeMove(ChessMove)}.
+     */
+    void makeMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int kind = Move.kind(move);
+
+        ChessPiece piece = getPiece(from);
+        int captureSquare = kind == Move.EN_PASSANT ? (from & ~7) | (to & 7) : to;
+        int flags = piece.hasMoved() ? UNDO_PIECE_HAD_MOVED : 0;
+        ChessPiece captured = getPiece(captureSquare);
+
+        if (kind == Move.CASTLING) {
+            int columnDistance = (to & 7) - (from & 7);
+            int rookFrom = castlingRookFrom(to, columnDistance);
+            ChessPiece rook = getPiece(rookFrom);
+            if (rook != null) {
+                flags |= UNDO_CASTLING | (rook.hasMoved() ? UNDO_ROOK_HAD_MOVED : 0);
+                setPiece(castlingRookTo(to, columnDistance), rook);
+                setPiece(rookFrom, null);
+                rook.markMoved();
+            }
+        }
+
+        setPiece(captureSquare, null);
+        if (Move.isPromotion(move)) {
+            flags |= UNDO_PROMOTION;
+            ChessPiece promoted = new ChessPiece(piece.getTeamColor(), Move.promotion(move));
+            promoted.markMoved();
+            setPiece(to, promoted);
+        } else {
+            setPiece(to, piece);
+        }
+        setPiece(from, null);
+        piece.markMoved();
+
+        pushUndo(from | (to << 6) | (captureSquare << 12) | (flags << 18), piece, captured);
+    }
+
+    /**
+     * Takes back the last move played with {@link #makeMove(ChessMove)}.
+     */
+    public void unmakeMove() {
+        if (undoSize == 0) {
+            throw new IllegalStateException("No move to unmake");
+        }
+        undoSize--;
+        int info = undoInfo[undoSize];
+        ChessPiece piece = undoMoved[undoSize];
+        ChessPiece captured = undoCaptured[undoSize];
+        undoMoved[undoSize] = null;
+        undoCaptured[undoSize] = null;
+
+        int from = info & 63;
+        int to = (info >>> 6) & 63;
+        int captureSquare = (info >>> 12) & 63;
+        int flags = info >>> 18;
+
+        setPiece(to, null);
+        setPiece(captureSquare, captured);
+        setPiece(from, piece);
+        piece.setMoved((flags & UNDO_PIECE_HAD_MOVED) != 0);
+
+        if ((flags & UNDO_CASTLING) != 0) {
+            int columnDistance = (to & 7) - (from & 7);
+            int rookTo = castlingRookTo(to, columnDistance);
+            ChessPiece rook = getPiece(rookTo);
+            setPiece(castlingRookFrom(to, columnDistance), rook);
+            setPiece(rookTo, null);
+            rook.setMoved((flags & UNDO_ROOK_HAD_MOVED) != 0);
+        }
+    }
+
+    /* 영구적인 수(ChessGame.makeMove)를 둔 뒤에는 되돌리기 기록이 필요 없다 */
+    void clearHistory() {
+        if (undoSize > 0) {
+            Arrays.fill(undoMoved, 0, undoSize, null);
+            Arrays.fill(undoCaptured, 0, undoSize, null);
+            undoSize = 0;
+        }
+    }
+
+    private void pushUndo(int info, ChessPiece moved, ChessPiece captured) {
+        if (undoInfo == null) {
+            undoInfo = new int[16];
+            undoMoved = new ChessPiece[16];
+            undoCaptured = new ChessPiece[16];
+        } else if (undoSize == undoInfo.length) {
+            undoInfo = Arrays.copyOf(undoInfo, undoSize * 2);
+            undoMoved = Arrays.copyOf(undoMoved, undoSize * 2);
+            undoCaptured = Arrays.copyOf(undoCaptured, undoSize * 2);
+        }
+        undoInfo[undoSize] = info;
+        undoMoved[undoSize] = moved;
+        undoCaptured[undoSize] = captured;
+        undoSize++;
+    }
+
+    private static int castlingRookFrom(int kingTo, int columnDistance) {
+        return columnDistance > 0 ? kingTo + 1 : kingTo - 2;
+    }
+
+    private static int castlingRookTo(int kingTo, int columnDistance) {
+        return columnDistance > 0 ? kingTo - 1 : kingTo + 1;
+    }
+
+    /**
+     * @return bitboard of every square holding a piece of the given color and type
+     */
+    public long getBitboard(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        ensureBitboards();
+        return pieceBitboards[Bitboards.pieceIndex(color, type)];
+    }
+
+    /**
+     * @return bitboard of every square holding a piece of the given color
+     */
+    public long getOccupancy(ChessGame.TeamColor color) {
+        ensureBitboards();
+        return colorBitboards[color.ordinal()];
+    }
+
+    /**
+     * @return bitboard of every occupied square
+     */
+    public long getOccupancy() {
+        ensureBitboards();
+        return colorBitboards[0] | colorBitboards[1];
+    }
+
+    /**
+     * @return 64-bit Zobrist key of the piece placement (side to move, castling
+     * and en passant are added by ChessGame.getZobristKey)
+     */
+    public long getZobristKey() {
+        ensureBitboards();
+        return pieceKey;
+    }
+
+    /**
+     * Castling rights as 4 bits (white king side, white queen side, black king
+     * side, black queen side), derived from unmoved kings and rooks on their
+     * starting squares.
+     */
+    int castlingRights() {
+        int rights = 0;
+        if (isUnmoved(Bitboards.square(1, 5), ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING)) {
+            if (isUnmoved(Bitboards.square(1, 8), ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK)) {
+                rights |= 1;
+            }
+            if (isUnmoved(Bitboards.square(1, 1), ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK)) {
+                rights |= 2;
+            }
+        }
+        if (isUnmoved(Bitboards.square(8, 5), ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING)) {
+            if (isUnmoved(Bitboards.square(8, 8), ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK)) {
+                rights |= 4;
+            }
+            if (isUnmoved(Bitboards.square(8, 1), ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK)) {
+                rights |= 8;
+            }
+        }
+        return rights;
+    }
+
+    /**
+     * The reverse of {@link #castlingRights()} for a position read from text
+     * or bytes: marks every king and rook as moved unless it stands on its
+     * starting square and the given rights still cover it.
+     */
+    void markMovedWithoutCastlingRights(int rights) {
+        for (int square = 0; square < Bitboards.SQUARES; square++) {
+            ChessPiece piece = getPiece(square);
+            if (piece == null) {
+                continue;
+            }
+            boolean white = piece.getTeamColor() == ChessGame.TeamColor.WHITE;
+            int homeRow = white ? 1 : 8;
+            boolean kingSide = (rights & (white ? 1 : 4)) != 0;
+            boolean queenSide = (rights & (white ? 2 : 8)) != 0;
+            boolean unmoved = switch (piece.getPieceType()) {
+                case KING -> square == Bitboards.square(homeRow, 5) && (kingSide || queenSide);
+                case ROOK -> (square == Bitboards.square(homeRow, 8) && kingSide)
+                        || (square == Bitboards.square(homeRow, 1) && queenSide);
+                default -> true;
+            };
+            if (!unmoved) {
+                piece.markMoved();
+            }
+        }
+    }
+
+    private boolean isUnmoved(int square, ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        ChessPiece piece = getPiece(square);
+        return piece != null && piece.getTeamColor() == color && piece.getPieceType() == type && !piece.hasMoved();
+    }
+
+    private void ensureBitboards() {
+        if (pieceBitboards != null) {
+            return;
+        }
+        long[] pieces = new long[12];
+        long[] colors = new long[2];
+        long key = 0L;
+        for (int square = 0; square < Bitboards.SQUARES; square++) {
+            ChessPiece piece = getPiece(square);
+            if (piece != null) {
+                pieces[Bitboards.pieceIndex(piece.getTeamColor(), piece.getPieceType())] |= Bitboards.bit(square);
+                colors[piece.getTeamColor().ordinal()] |= Bitboards.bit(square);
+                key ^= Zobrist.pieceKey(piece, square);
+            }
+        }
+        pieceKey = key;
+        pieceBitboards = pieces;
+        colorBitboards = colors;
+        kingSquares = new int[2];
+        updateKingSquare(ChessGame.TeamColor.WHITE);
+        updateKingSquare(ChessGame.TeamColor.BLACK);
+    }
+
     /**
      * Sets the board to the default starting board
      * (How the game of chess normally starts)
@@ -57,6 +406,11 @@ public class ChessBoard {
 
     public void resetBoard() {
         board = new ChessPiece[8][8];
+        pieceBitboards = null;
+        colorBitboards = null;
+        kingSquares = null;
+        version++;
+        clearHistory();
 
         ChessPiece.PieceType[] majorPieceList = {
                 ChessPiece.PieceType.ROOK,
@@ -71,16 +425,16 @@ public class ChessBoard {
 
         for (int col = 1; col <= 8; col++) {
             // 흰색 메이저 피스 (1행)
-            addPiece(new ChessPosition(1, col),
+            addPiece(ChessPosition.of(1, col),
                     new ChessPiece(ChessGame.TeamColor.WHITE, majorPieceList[col - 1]));
             // 흰색 폰 (2행)
-            addPiece(new ChessPosition(2, col),
+            addPiece(ChessPosition.of(2, col),
                     new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
             // 검은색 폰 (7행)
-            addPiece(new ChessPosition(7, col),
+            addPiece(ChessPosition.of(7, col),
                     new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
             // 검은색 메이저 피스 (8행)
-            addPiece(new ChessPosition(8, col),
+            addPiece(ChessPosition.of(8, col),
                     new ChessPiece(ChessGame.TeamColor.BLACK, majorPieceList[col - 1]));
         }
     }
@@ -88,16 +442,13 @@ public class ChessBoard {
     public ChessBoard simulationBoard() {
         ChessBoard simulationBoard = new ChessBoard();
 
-        for (int row = 1; row <= 8; row ++) {
-            for (int col = 1; col <= 8; col ++) {
-                ChessPosition position = new ChessPosition(row, col);
-                ChessPiece piece = this.getPiece(position);
-
-                if (piece != null) {
-                    ChessPiece newPiece = new ChessPiece(piece.getTeamColor(), piece.getPieceType());
-                    simulationBoard.addPiece(position, newPiece);
-                }
-            }
+        /* 빈 칸은 건너뛰고 말이 있는 칸만 복사 */
+        long occupied = getOccupancy();
+        while (occupied != 0) {
+            int square = Long.numberOfTrailingZeros(occupied);
+            occupied &= occupied - 1;
+            ChessPiece piece = getPiece(square);
+            simulationBoard.setPiece(square, new ChessPiece(piece.getTeamColor(), piece.getPieceType()));
         }
 
         return simulationBoard;
@@ -115,7 +466,7 @@ public class ChessBoard {
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(board);
+        return Long.hashCode(getZobristKey());
     }
 
     @Override
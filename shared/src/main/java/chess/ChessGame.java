@@ -1,7 +1,9 @@
 package chess;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Objects;
 
 /**
@@ -18,6 +20,28 @@ public class ChessGame {
     /* 앙파상 */
     private ChessPosition lastDoublePawn = null;
 
+    /* FEN 수 카운터: 마지막 폰 이동/캡처 이후 반수, 그리고 검은색이 둘 때마다 1 늘어나는 수 번호 */
+    private int halfmoveClock = 0;
+    private int fullmoveNumber = 1;
+
+    /*
+     * 지금 둘 차례인 쪽의 합법 수 캐시. makeMove, setBoard, setTeamTurn 에서 지우고,
+     * 보드가 바깥에서 바뀐 경우도 보드 version 으로 알아챈다. 직렬화에서는 제외.
+     */
+    private transient Collection<ChessMove> cachedLegalMoves;
+    private transient boolean cachedInCheck;
+    private transient ChessBoard cachedBoard;
+    private transient int cachedBoardVersion;
+
+    /* applyMove/undoMove 용 되돌리기 기록: 수를 두기 전의 앙파상 폰 위치와 halfmoveClock */
+    private transient ChessPosition[] doublePawnHistory;
+    private transient int[] halfmoveHistory;
+    private transient int historySize;
+
+    /* 수 생성에 계속 재사용하는 생성기와 버퍼 */
+    private transient MoveGenerator generator;
+    private transient MoveList moveBuffer;
+
 
     public ChessGame() {
         this.board = new ChessBoard();
@@ -39,6 +63,7 @@ public class ChessGame {
      */
     public void setTeamTurn(TeamColor team) {
         this.currentTurnTeam = team;
+        cachedLegalMoves = null;
     }
 
     /**
@@ -61,147 +86,71 @@ public class ChessGame {
         ChessPiece piece = board.getPiece(startPosition);
         if (piece == null) {return validMoves;}
 
-        basicMoveCheck(startPosition, piece, validMoves);
-
-        /* 캐슬링 */
-        castlingCheck(startPosition, piece, validMoves);
-
-
-        if (piece.getPieceType() == ChessPiece.PieceType.PAWN && lastDoublePawn != null) {
-            int direction = (piece.getTeamColor() == TeamColor.WHITE) ? 1 : -1;
-            int startRow = startPosition.getRow();
-            int thePawn = (piece.getTeamColor() == TeamColor.WHITE) ? 5 : 4;
-
-            if ( startRow == thePawn && Math.abs(lastDoublePawn.getColumn() - startPosition.getColumn()) == 1) {
-
-                ChessPosition capturePosition = new ChessPosition(startRow + direction, lastDoublePawn.getColumn());
-
-                if (board.isValidPosition(capturePosition) && board.getPiece(capturePosition) == null) {
-                    ChessBoard simulation = board.simulationBoard();
-
-                    ChessPiece pawnForSimulation = simulation.getPiece(startPosition);
-                    simulation.addPiece(capturePosition, pawnForSimulation);
-                    simulation.addPiece(startPosition, null);
-                    simulation.addPiece(lastDoublePawn, null);
-
-                    if (!checkSimulation(simulation, piece.getTeamColor())) {
-                        validMoves.add(new ChessMove(startPosition, capturePosition, null));
-                    }
-                }
-            }
-        }
+        /* 핀과 체크 마스크를 먼저 구해서 합법적인 수만 만든다 (캐슬링, 앙파상 포함) */
+        MoveList moves = moveBuffer();
+        generator(piece.getTeamColor()).generate(startPosition.getSquare(), moves);
+        validMoves.addAll(moves.toChessMoves());
         return validMoves;
     }
 
-    private void basicMoveCheck(ChessPosition startPosition, ChessPiece piece, Collection<ChessMove> validMoves) {
-        for (ChessMove move : piece.pieceMoves(board, startPosition)) {
-            ChessBoard simulationBoard = board.simulationBoard();
-            ChessPiece targetPiece = simulationBoard.getPiece(startPosition);
-            simulationBoard.addPiece(move.getEndPosition(), targetPiece);
-            simulationBoard.addPiece(startPosition, null);
-            if (!checkSimulation(simulationBoard, piece.getTeamColor())) {
-                validMoves.add(move);
-            }
+    /**
+     * Gets every legal move for the team whose turn it is. The result is
+     * computed once and reused until the position changes.
+     *
+     * @return unmodifiable collection of legal moves, empty if there are none
+     */
+    public Collection<ChessMove> legalMoves() {
+        if (!isCacheValid()) {
+            MoveList moves = moveBuffer();
+            cachedInCheck = generateLegalMoves(moves);
+            cachedLegalMoves = Collections.unmodifiableList(moves.toChessMoves());
+            cachedBoard = board;
+            cachedBoardVersion = board.version();
         }
+        return cachedLegalMoves;
     }
 
-    private void castlingCheck(ChessPosition startPosition, ChessPiece piece, Collection<ChessMove> validMoves) {
-        if (piece.getPieceType() == ChessPiece.PieceType.KING && !piece.hasMoved() && !checkSimulation(board, piece.getTeamColor())) {
-            int row = (piece.getTeamColor() == TeamColor.WHITE) ? 1 : 8;
-
-            ChessPosition rookRight = new ChessPosition(row, 8);
-            ChessPiece rookPieceRight = board.getPiece(rookRight);
-
-            ChessPiece gap1 = board.getPiece(new ChessPosition(row, 6));
-            ChessPiece gap2 = board.getPiece(new ChessPosition(row, 7));
-
-            boolean isRookRight = rookPieceRight != null
-                    && rookPieceRight.getPieceType() == ChessPiece.PieceType.ROOK
-                    && !rookPieceRight.hasMoved();
-            boolean isPathClearRight = gap1 == null && gap2 == null;
-
-            if (isRookRight && isPathClearRight) {
-                ChessBoard simulationForCol6 = board.simulationBoard();
-                ChessPiece kingForRightSimulation = simulationForCol6.getPiece(startPosition);
-                simulationForCol6.addPiece(new ChessPosition(row, 6), kingForRightSimulation);
-                simulationForCol6.addPiece(startPosition, null);
-                if(!checkSimulation(simulationForCol6, piece.getTeamColor())) {
-                    ChessBoard simulationForCol7 = simulationForCol6.simulationBoard();
-                    simulationForCol7.addPiece(new ChessPosition(row, 7), kingForRightSimulation);
-                    simulationForCol7.addPiece(new ChessPosition(row, 6), null);
-                    if (!checkSimulation(simulationForCol7, piece.getTeamColor())) {
-                        validMoves.add(new ChessMove(startPosition, new ChessPosition(row, 7), null));
-                    }
-                }
-            }
-
-            ChessPosition rookLeft = new ChessPosition(row, 1);
-            ChessPiece rookPieceLeft = board.getPiece(rookLeft);
-
-            ChessPiece gapA = board.getPiece(new ChessPosition(row, 2));
-            ChessPiece gapB = board.getPiece(new ChessPosition(row, 3));
-            ChessPiece gapC = board.getPiece(new ChessPosition(row, 4));
-
-            boolean isRookLeft = rookPieceLeft != null
-                    && rookPieceLeft.getPieceType() == ChessPiece.PieceType.ROOK
-                    && !rookPieceLeft.hasMoved();
-            boolean isPathClearLeft = gapA == null && gapB == null && gapC == null;
-
-
-            if (isRookLeft && isPathClearLeft) {
-                ChessBoard simulationForCol4 = board.simulationBoard();
-                ChessPiece kingForLeftSimulation = simulationForCol4.getPiece(startPosition);
-                simulationForCol4.addPiece(new ChessPosition(row, 4), kingForLeftSimulation);
-                simulationForCol4.addPiece(startPosition, null);
-                if (!checkSimulation(simulationForCol4, piece.getTeamColor())) {
-                    ChessBoard simulationForCol3 = simulationForCol4.simulationBoard();
-                    simulationForCol3.addPiece(new ChessPosition(row, 3), kingForLeftSimulation);
-                    simulationForCol3.addPiece(new ChessPosition(row, 4), null);
-                    if (!checkSimulation(simulationForCol3, piece.getTeamColor())) {
-                        validMoves.add(new ChessMove(startPosition, new ChessPosition(row, 3), null));
-                    }
-                }
-            }
-        }
+    /**
+     * Replaces the contents of the given list with the legal moves of the team
+     * whose turn it is, as {@link Move} ints. Nothing is cached or allocated.
+     *
+     * @return true if that team is in check
+     */
+    boolean generateLegalMoves(MoveList moves) {
+        moves.clear();
+        MoveGenerator generator = generator(currentTurnTeam);
+        generator.generateAll(moves);
+        return generator.isInCheck();
     }
 
-    private boolean checkSimulation(ChessBoard board, TeamColor teamColor) {
-        for (int row = 1; row <= 8; row ++) {
-            for (int col = 1; col <= 8; col ++) {
-                ChessPosition searchPosition = new ChessPosition(row, col);
-                ChessPiece searchedPiece = board.getPiece(searchPosition);
-                if (searchedPiece != null && searchedPiece.getPieceType() == ChessPiece.PieceType.KING && searchedPiece.getTeamColor() == teamColor) {
-                    return canKingBeAttacked(board, searchPosition, teamColor);
-                }
-            }
+    private MoveGenerator generator(TeamColor teamColor) {
+        if (generator == null) {
+            generator = new MoveGenerator();
         }
-        return false;
+        int doublePawnSquare = lastDoublePawn == null ? -1
+                : lastDoublePawn.getSquare();
+        return generator.init(board, teamColor, doublePawnSquare);
     }
 
-    private boolean canKingBeAttacked(ChessBoard board, ChessPosition kingPosition, TeamColor currentTeamColor) {
-        TeamColor opponentColor;
-
-        opponentColor = (currentTeamColor == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
-
-        for (int row = 1; row <= 8; row ++) {
-            for (int col = 1; col <= 8; col ++) {
-                ChessPosition opponentPosition = new ChessPosition(row, col);
-                ChessPiece opponentPiece = board.getPiece(opponentPosition);
-
-                if (opponentPiece == null || opponentPiece.getTeamColor() != opponentColor) {
-                    continue;
-                }
+    private MoveList moveBuffer() {
+        if (moveBuffer == null) {
+            moveBuffer = new MoveList();
+        }
+        moveBuffer.clear();
+        return moveBuffer;
+    }
 
-                Collection<ChessMove> opponentMoves = opponentPiece.pieceMoves(board, opponentPosition);
+    private boolean isCacheValid() {
+        return cachedLegalMoves != null && cachedBoard == board && cachedBoardVersion == board.version();
+    }
 
-                for (ChessMove move : opponentMoves) {
-                    if (move.getEndPosition().equals(kingPosition)) {
-                        return true;
-                    }
-                }
-            }
+    private boolean checkSimulation(ChessBoard board, TeamColor teamColor) {
+        int kingSquare = board.kingSquare(teamColor);
+        if (kingSquare < 0) {
+            return false;
         }
-        return false;
+        TeamColor opponentColor = (teamColor == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+        return Attacks.isSquareAttacked(board, kingSquare, opponentColor);
     }
 
     /**
@@ -212,7 +161,6 @@ public class ChessGame {
      */
     public void makeMove(ChessMove move) throws InvalidMoveException {
         ChessPosition start = move.getStartPosition();
-        ChessPosition end = move.getEndPosition();
 
         ChessPiece piece = board.getPiece(start);
 
@@ -220,65 +168,134 @@ public class ChessGame {
             throw new InvalidMoveException();
         }
 
-        Collection<ChessMove> validMoves = validMoves(start);
+        Collection<ChessMove> validMoves = isCacheValid() ? cachedLegalMoves : validMoves(start);
         if (validMoves == null || !validMoves.contains(move)) {
             throw new InvalidMoveException();
         }
 
-        int compare1 = Math.abs(end.getColumn() - start.getColumn());
+        /* 실제로 둔 수는 되돌릴 일이 없으니 기록을 비운다 */
+        applyMove(move);
+        board.clearHistory();
+        Arrays.fill(doublePawnHistory, 0, historySize, null);
+        historySize = 0;
+    }
 
-        if (piece.getPieceType() == ChessPiece.PieceType.PAWN && compare1 == 1 && board.getPiece(end) == null) {
-            if (lastDoublePawn != null && lastDoublePawn.getRow() == start.getRow() && lastDoublePawn.getColumn() == end.getColumn())
-            {
-                board.addPiece(lastDoublePawn, null);
-            }
-        }
+    /**
+     * Plays a move without validating it, so it can be taken back with
+     * {@link #undoMove()}. Used by search code such as Perft.
+     */
+    void applyMove(ChessMove move) {
+        applyMove(board.encodeMove(move));
+    }
 
-        if (piece.getPieceType() == ChessPiece.PieceType.KING && Math.abs(end.getColumn() - start.getColumn()) == 2) {
-            int row = start.getRow();
-
-            if (end.getColumn() == start.getColumn() + 2) {
-                ChessPosition rookStart = new ChessPosition(row, 8);
-                ChessPosition rookEnd = new ChessPosition(row, 6);
-                ChessPiece rookPiece = board.getPiece(rookStart);
-
-                board.addPiece(rookEnd, rookPiece);
-                board.addPiece(rookStart, null);
-                if (!rookPiece.hasMoved()) {rookPiece.markMoved();}
-            } else if (end.getColumn() == start.getColumn() - 2) {
-                ChessPosition rookStart = new ChessPosition(row, 1);
-                ChessPosition rookEnd = new ChessPosition(row, 4);
-                ChessPiece rookPiece = board.getPiece(rookStart);
-                board.addPiece(rookEnd, rookPiece);
-                board.addPiece(rookStart, null);
-                if (!rookPiece.hasMoved()) {rookPiece.markMoved();}
-            }
+    /**
+     * Same as {@link #applyMove(ChessMove)} for a {@link Move}-encoded move.
+     */
+    void applyMove(int move) {
+        if (doublePawnHistory == null) {
+            doublePawnHistory = new ChessPosition[16];
+            halfmoveHistory = new int[16];
+        } else if (historySize == doublePawnHistory.length) {
+            doublePawnHistory = Arrays.copyOf(doublePawnHistory, historySize * 2);
+            halfmoveHistory = Arrays.copyOf(halfmoveHistory, historySize * 2);
         }
-
-
-        if (move.getPromotionPiece() != null && piece.getPieceType() == ChessPiece.PieceType.PAWN) {
-            board.addPiece(end, new ChessPiece(currentTurnTeam, move.getPromotionPiece()));
-        } else {
-            board.addPiece(end, piece);
+        doublePawnHistory[historySize] = lastDoublePawn;
+        halfmoveHistory[historySize] = halfmoveClock;
+        historySize++;
+
+        boolean resetsClock = board.getPiece(Move.to(move)) != null || Move.kind(move) == Move.EN_PASSANT
+                || board.getPiece(Move.from(move)).getPieceType() == ChessPiece.PieceType.PAWN;
+        halfmoveClock = resetsClock ? 0 : halfmoveClock + 1;
+        if (currentTurnTeam == TeamColor.BLACK) {
+            fullmoveNumber++;
         }
 
-        board.addPiece(start, null);
+        /* 앙파상으로 잡힌 폰, 캐슬링 룩 이동, 프로모션, hasMoved 표시까지 보드가 처리 */
+        board.makeMove(move);
 
-        if (piece.getPieceType() == ChessPiece.PieceType.PAWN && Math.abs(end.getRow() - start.getRow()) == 2) {
-            lastDoublePawn = end;
+        if (Move.kind(move) == Move.DOUBLE_PAWN_PUSH) {
+            lastDoublePawn = Bitboards.position(Move.to(move));
         } else {
             lastDoublePawn = null;
         }
 
-        if (!piece.hasMoved()) {
-            piece.markMoved();
-        }
+        currentTurnTeam = Attacks.opposite(currentTurnTeam);
+        cachedLegalMoves = null;
+    }
 
-        if (currentTurnTeam == TeamColor.WHITE) {
-            currentTurnTeam = TeamColor.BLACK;
-        } else {
-            currentTurnTeam = TeamColor.WHITE;
+    /**
+     * Takes back the last move played with {@link #applyMove}.
+     */
+    void undoMove() {
+        board.unmakeMove();
+        historySize--;
+        lastDoublePawn = doublePawnHistory[historySize];
+        doublePawnHistory[historySize] = null;
+        halfmoveClock = halfmoveHistory[historySize];
+        currentTurnTeam = Attacks.opposite(currentTurnTeam);
+        if (currentTurnTeam == TeamColor.BLACK) {
+            fullmoveNumber--;
         }
+        cachedLegalMoves = null;
+    }
+
+    /**
+     * @return number of half moves since the last pawn move or capture
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * @return the move number, starting at 1 and increased after each black move
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    /**
+     * @return number of half moves played since the start position, derived
+     * from the fullmove number and the side to move
+     */
+    public int getPly() {
+        return (fullmoveNumber - 1) * 2 + (currentTurnTeam == TeamColor.BLACK ? 1 : 0);
+    }
+
+    /* 앙파상이 가능한 폰 (직전에 두 칸 전진한 폰), 없으면 null */
+    ChessPosition getLastDoublePawn() {
+        return lastDoublePawn;
+    }
+
+    /**
+     * Creates a game from a position in Forsyth-Edwards Notation. Kings and
+     * rooks that the castling field does not cover are marked as moved. The
+     * move counters are optional and default to 0 and 1.
+     *
+     * @param fen the position, e.g. "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1"
+     * @return a new game at that position
+     * @throws IllegalArgumentException if the text is not a valid FEN position
+     */
+    public static ChessGame fromFen(String fen) {
+        return Fen.parse(fen);
+    }
+
+    /**
+     * Writes this position in Forsyth-Edwards Notation. Castling rights come
+     * from unmoved kings and rooks, and the en passant square from the pawn
+     * that just advanced two squares.
+     *
+     * @return the position as a FEN string
+     */
+    public String toFen() {
+        return Fen.format(this);
+    }
+
+    /* FEN 을 읽을 때 쓰는 상태 설정 (보드와 차례는 setBoard, setTeamTurn 으로) */
+    void setPositionState(ChessPosition lastDoublePawn, int halfmoveClock, int fullmoveNumber) {
+        this.lastDoublePawn = lastDoublePawn;
+        this.halfmoveClock = halfmoveClock;
+        this.fullmoveNumber = fullmoveNumber;
+        cachedLegalMoves = null;
     }
 
     /**
@@ -288,18 +305,11 @@ public class ChessGame {
      * @return True if the specified team is in check
      */
     public boolean isInCheck(TeamColor teamColor) {
-        for (int row = 1; row <= 8; row ++) {
-            for (int col = 1; col <= 8; col ++) {
-                ChessPosition searchPosition = new ChessPosition(row, col);
-                ChessPiece searchedPiece = board.getPiece(searchPosition);
-                if (searchedPiece != null && searchedPiece.getPieceType() == ChessPiece.PieceType.KING && searchedPiece.getTeamColor() == teamColor) {
-                    if (canKingBeAttacked(board, searchPosition, teamColor)) {
-                        return true;
-                    }
-                }
-            }
+        if (teamColor == currentTurnTeam) {
+            legalMoves();
+            return cachedInCheck;
         }
-        return false;
+        return checkSimulation(board, teamColor);
     }
 
     /**
@@ -318,20 +328,13 @@ public class ChessGame {
     }
 
     public boolean hasAnyValidMoves(TeamColor teamColor) {
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition position = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(position);
-
-                if (piece != null && piece.getTeamColor() == teamColor) {
-                    Collection<ChessMove> moves = validMoves(position);
-                    if (moves != null && !moves.isEmpty()) {
-                        return false;
-                    }
-                }
-            }
+        /* 둘 차례인 쪽은 캐시된 합법 수 목록으로 한 번에 판단 */
+        if (teamColor == currentTurnTeam) {
+            return legalMoves().isEmpty();
         }
-        return true;
+        MoveList moves = moveBuffer();
+        generator(teamColor).generateAll(moves);
+        return moves.isEmpty();
     }
 
     /**
@@ -350,6 +353,24 @@ public class ChessGame {
         return hasAnyValidMoves(teamColor);
     }
 
+    /**
+     * Gets a 64-bit Zobrist key of the position: piece placement, side to move,
+     * castling rights and en passant file. Equal keys mean the same position
+     * for repetition detection and deduplication.
+     *
+     * @return the position key
+     */
+    public long getZobristKey() {
+        long key = board.getZobristKey() ^ Zobrist.CASTLING[board.castlingRights()];
+        if (currentTurnTeam == TeamColor.BLACK) {
+            key ^= Zobrist.BLACK_TO_MOVE;
+        }
+        if (lastDoublePawn != null) {
+            key ^= Zobrist.EN_PASSANT_FILE[lastDoublePawn.getColumn() - 1];
+        }
+        return key;
+    }
+
     /**
      * Sets this game's chessboard with a given board
      *
@@ -357,6 +378,7 @@ public class ChessGame {
      */
     public void setBoard(ChessBoard board) {
         this.board = board;
+        cachedLegalMoves = null;
     }
 
     /**
@@ -378,7 +400,9 @@ public class ChessGame {
 
     @Override
     public int hashCode() {
-        return Objects.hash(board, currentTurnTeam);
+        /* equals 와 맞추기 위해 기물 배치와 차례만 쓴다 */
+        long key = board.getZobristKey();
+        return Long.hashCode(currentTurnTeam == TeamColor.BLACK ? key ^ Zobrist.BLACK_TO_MOVE : key);
     }
 
     @Override
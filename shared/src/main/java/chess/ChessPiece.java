@@ -34,6 +34,11 @@ public class ChessPiece {
         this.hasMoved = true;
     }
 
+    /* unmakeMove 에서 원래 상태로 되돌릴 때 사용 */
+    void setMoved(boolean hasMoved) {
+        this.hasMoved = hasMoved;
+    }
+
     /**
      * The various different chess piece options
      */
@@ -60,28 +65,6 @@ public class ChessPiece {
         return type;
     }
 
-    private static final int[][] KING_DIRECTIONS = {
-            {1, -1},
-            {1, 1},
-            {-1, 1},
-            {-1, -1},
-            {-1, 0},
-            {1, 0},
-            {0, -1},
-            {0, 1}
-    };
-    private static final int[][] QUEEN_DIRECTIONS  = KING_DIRECTIONS;
-    private static final int[][] BISHOP_DIRECTIONS = {
-            { 1, -1 }, { 1,  1 }, { -1,  1 }, { -1, -1 }
-    };
-    private static final int[][] ROOK_DIRECTIONS   = {
-            { -1, 0 }, { 1, 0 }, { 0, -1 }, { 0, 1 }
-    };
-    private static final int[][] KNIGHT_DIRECTIONS = {
-            { 1, -2 }, { 2, -1 }, { 2,  1 }, { 1,  2 },
-            { -1, 2 }, { -2, 1 }, { -2, -1 }, { -1, -2 }
-    };
-
     /**
      * Calculates all the positions a chess piece can move to
      * Does not take into account moves that are illegal due to leaving the king in
@@ -90,64 +73,32 @@ public class ChessPiece {
      * @return Collection of valid moves
      */
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
+        /* 미리 만들어 둔 공격 표를 쓴다. 슬라이딩 말은 매직 비트보드로 한 번에 찾는다 */
+        int square = myPosition.getSquare();
+        long occupied = board.getOccupancy();
         return switch (type) {
-            case KING -> calculateOneMove(board, myPosition, KING_DIRECTIONS);
-            case QUEEN -> calculateloopedMove(board, myPosition, QUEEN_DIRECTIONS);
-            case BISHOP -> calculateloopedMove(board, myPosition, BISHOP_DIRECTIONS);
-            case ROOK -> calculateloopedMove(board, myPosition, ROOK_DIRECTIONS);
-            case KNIGHT -> calculateOneMove(board, myPosition, KNIGHT_DIRECTIONS);
+            case KING -> calculateOneMove(board, myPosition, Attacks.kingAttacks(square));
+            case QUEEN -> calculateOneMove(board, myPosition, Attacks.queenAttacks(square, occupied));
+            case BISHOP -> calculateOneMove(board, myPosition, Attacks.bishopAttacks(square, occupied));
+            case ROOK -> calculateOneMove(board, myPosition, Attacks.rookAttacks(square, occupied));
+            case KNIGHT -> calculateOneMove(board, myPosition, Attacks.knightAttacks(square));
             case PAWN -> calculatePawnMove(board, myPosition);
         };
     }
 
-    private Collection<ChessMove> calculateOneMove(ChessBoard board, ChessPosition myPosition, int[][] directions) {
+    /* 공격하는 칸 중 우리 말이 없는 칸으로 간다 */
+    private Collection<ChessMove> calculateOneMove(ChessBoard board, ChessPosition myPosition, long targets) {
         Collection<ChessMove> validMoves = new ArrayList<>();
-        for (int[] direction : directions) {
-            int row = myPosition.getRow() + direction[0];
-            int col = myPosition.getColumn() + direction[1];
-
-            ChessPosition nextPosition = new ChessPosition(row, col);
-
-            if (board.isValidPosition(nextPosition)) {
-
-                ChessPiece pieceAtNextPosition = board.getPiece(nextPosition);
-
-                if (pieceAtNextPosition == null || pieceAtNextPosition.getTeamColor() != pieceColor) {
-                    validMoves.add(new ChessMove(myPosition, nextPosition, null));
-                }
-            }
-        }
-        return validMoves;
-    }
-
-    private Collection<ChessMove> calculateloopedMove(ChessBoard board, ChessPosition myPosition, int[][] directions) {
-        Collection<ChessMove> validMoves = new ArrayList<>();
-
-        for (int[] direction : directions) {
-            int row = myPosition.getRow();
-            int col = myPosition.getColumn();
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
 
-            while (true) {
-                row += direction[0];
-                col += direction[1];
+            ChessPiece pieceAtNextPosition = board.getPiece(to);
 
-                ChessPosition nextPosition = new ChessPosition(row, col);
-                /* 다음 칸이 보드판 밖이면 멈춤 */
-                if (!board.isValidPosition(nextPosition)) {break;}
-
-                ChessPiece pieceAtNextPosition = board.getPiece(nextPosition);
-                /* 다른 말이 없으면 유효, 다른 말 있으면 상대말이면 이동 가능, 다만 거기서 멈춰야 함 */
-                if (pieceAtNextPosition == null) {
-                    validMoves.add(new ChessMove(myPosition, nextPosition, null));
-                } else {
-                    if (pieceAtNextPosition.getTeamColor() != pieceColor) {
-                        validMoves.add(new ChessMove(myPosition, nextPosition, null));
-                    }
-                    break;
-                }
+            if (pieceAtNextPosition == null || pieceAtNextPosition.getTeamColor() != pieceColor) {
+                validMoves.add(new ChessMove(myPosition, Bitboards.position(to), null));
             }
         }
-
         return validMoves;
     }
 
@@ -173,7 +124,7 @@ public class ChessPiece {
         addPawnForwardMoves(board, myPosition, direction, startRow, finalRow, validMoves);
 
         // 대각선 캡처 (및 프로모션)
-        addPawnCaptureMoves(board, myPosition, direction, finalRow, validMoves);
+        addPawnCaptureMoves(board, myPosition, finalRow, validMoves);
 
         return validMoves;
     }
@@ -186,18 +137,24 @@ public class ChessPiece {
             int finalRow,
             Collection<ChessMove> moves
     ) {
+        int nextRow = from.getRow() + direction;
+        if (nextRow < 1 || nextRow > 8) {
+            return;
+        }
         // 한 칸 앞으로
-        ChessPosition oneStep = new ChessPosition(from.getRow() + direction, from.getColumn());
-        if (board.isValidPosition(oneStep) && board.getPiece(oneStep) == null) {
+        ChessPosition oneStep = ChessPosition.of(nextRow, from.getColumn());
+        if (board.getPiece(oneStep) == null) {
             if (oneStep.getRow() == finalRow) {
                 // 프로모션
                 addPawnPromotionMoves(from, oneStep, moves);
             } else {
                 moves.add(new ChessMove(from, oneStep, null));
                 // 두 칸 앞으로 (스타트 위치에서만)
-                ChessPosition twoStep = new ChessPosition(from.getRow() + 2 * direction, from.getColumn());
-                if (from.getRow() == startRow && board.isValidPosition(twoStep) && board.getPiece(twoStep) == null) {
-                    moves.add(new ChessMove(from, twoStep, null));
+                if (from.getRow() == startRow) {
+                    ChessPosition twoStep = ChessPosition.of(from.getRow() + 2 * direction, from.getColumn());
+                    if (board.getPiece(twoStep) == null) {
+                        moves.add(new ChessMove(from, twoStep, null));
+                    }
                 }
             }
         }
@@ -206,32 +163,21 @@ public class ChessPiece {
     private void addPawnCaptureMoves(
             ChessBoard board,
             ChessPosition from,
-            int direction,
             int finalRow,
             Collection<ChessMove> moves
     ) {
-        // 왼쪽 대각선
-        ChessPosition upLeft = new ChessPosition(from.getRow() + direction, from.getColumn() - 1);
-        if (board.isValidPosition(upLeft)) {
-            ChessPiece target = board.getPiece(upLeft);
+        // 대각선 두 칸 (보드 밖은 표에 없음)
+        long targets = Attacks.pawnAttacks(from.getSquare(), pieceColor);
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            ChessPiece target = board.getPiece(to);
             if (target != null && target.getTeamColor() != pieceColor) {
-                if (upLeft.getRow() == finalRow) {
-                    addPawnPromotionMoves(from, upLeft, moves);
+                ChessPosition capture = Bitboards.position(to);
+                if (capture.getRow() == finalRow) {
+                    addPawnPromotionMoves(from, capture, moves);
                 } else {
-                    moves.add(new ChessMove(from, upLeft, null));
-                }
-            }
-        }
-
-        // 오른쪽 대각선
-        ChessPosition upRight = new ChessPosition(from.getRow() + direction, from.getColumn() + 1);
-        if (board.isValidPosition(upRight)) {
-            ChessPiece target = board.getPiece(upRight);
-            if (target != null && target.getTeamColor() != pieceColor) {
-                if (upRight.getRow() == finalRow) {
-                    addPawnPromotionMoves(from, upRight, moves);
-                } else {
-                    moves.add(new ChessMove(from, upRight, null));
+                    moves.add(new ChessMove(from, capture, null));
                 }
             }
         }
@@ -242,10 +188,8 @@ public class ChessPiece {
             ChessPosition to,
             Collection<ChessMove> moves
     ) {
-        for (PieceType promotionType : PieceType.values()) {
-            if (promotionType != PieceType.KING && promotionType != PieceType.PAWN) {
-                moves.add(new ChessMove(from, to, promotionType));
-            }
+        for (PieceType promotionType : Move.PROMOTION_TYPES) {
+            moves.add(new ChessMove(from, to, promotionType));
         }
     }
 
@@ -1,7 +1,5 @@
 package chess;
 
-import java.util.Objects;
-
 /**
  * Represents a single square position on a chess board
  * <p>
@@ -10,6 +8,15 @@ import java.util.Objects;
  */
 public class ChessPosition {
 
+    /* 보드 위 64칸은 칸마다 인스턴스 하나만 만들어 두고 같이 쓴다 (불변이라 공유해도 안전) */
+    private static final ChessPosition[] SQUARES = new ChessPosition[Bitboards.SQUARES];
+
+    static {
+        for (int square = 0; square < SQUARES.length; square++) {
+            SQUARES[square] = new ChessPosition(Bitboards.row(square), Bitboards.column(square));
+        }
+    }
+
     private final int row;
     private final int column;
 
@@ -18,6 +25,29 @@ public class ChessPosition {
         this.column = col;
     }
 
+    /**
+     * Gets the shared position for a square. Positions on the board are
+     * cached, so this does not allocate; positions off the board get a new
+     * instance.
+     *
+     * @param row 1-based row
+     * @param col 1-based column
+     * @return the position
+     */
+    public static ChessPosition of(int row, int col) {
+        if (row < 1 || row > 8 || col < 1 || col > 8) {
+            return new ChessPosition(row, col);
+        }
+        return SQUARES[(row - 1) * 8 + (col - 1)];
+    }
+
+    /**
+     * @return the shared position for a square index (0..63)
+     */
+    static ChessPosition ofSquare(int square) {
+        return SQUARES[square];
+    }
+
     /**
      * @return which row this position is in
      * 1 codes for the bottom row
@@ -34,6 +64,13 @@ public class ChessPosition {
         return column;
     }
 
+    /**
+     * @return square index 0..63 used by the bitboards (0 is row 1, column 1)
+     */
+    public int getSquare() {
+        return (row - 1) * 8 + (column - 1);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {return true;}
@@ -44,7 +81,8 @@ public class ChessPosition {
 
     @Override
     public int hashCode() {
-        return Objects.hash(row, column);
+        /* Objects.hash(row, column) 와 같은 값을 박싱 없이 계산 */
+        return 31 * (31 + row) + column;
     }
 
     @Override
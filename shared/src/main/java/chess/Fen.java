@@ -0,0 +1,174 @@
+package chess;
+
+/**
+ * Reads and writes positions in Forsyth-Edwards Notation (FEN), a compact
+ * one-line text form: piece placement, side to move, castling rights,
+ * en passant square, halfmove clock and fullmove number.
+ */
+final class Fen {
+
+    /* PieceType 순서(KING, QUEEN, BISHOP, KNIGHT, ROOK, PAWN)와 같은 순서의 글자 */
+    private static final String PIECE_LETTERS = "kqbnrp";
+    private static final ChessPiece.PieceType[] PIECE_TYPES = ChessPiece.PieceType.values();
+    /* castlingRights 비트 순서 */
+    private static final String CASTLING_LETTERS = "KQkq";
+
+    private Fen() {
+    }
+
+    static ChessGame parse(String fen) {
+        if (fen == null) {
+            throw new IllegalArgumentException("FEN is null");
+        }
+        String[] fields = fen.strip().split("\\s+");
+        if (fields.length < 4 || fields.length > 6) {
+            throw new IllegalArgumentException("FEN needs 4 to 6 fields: " + fen);
+        }
+
+        ChessBoard board = parsePlacement(fields[0]);
+        ChessGame.TeamColor turn = switch (fields[1]) {
+            case "w" -> ChessGame.TeamColor.WHITE;
+            case "b" -> ChessGame.TeamColor.BLACK;
+            default -> throw new IllegalArgumentException("Bad side to move: " + fields[1]);
+        };
+        applyCastling(board, fields[2]);
+        ChessPosition lastDoublePawn = parseEnPassant(board, fields[3], turn);
+        int halfmoveClock = fields.length > 4 ? parseCounter(fields[4], 0) : 0;
+        int fullmoveNumber = fields.length > 5 ? parseCounter(fields[5], 1) : 1;
+
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        game.setTeamTurn(turn);
+        game.setPositionState(lastDoublePawn, halfmoveClock, fullmoveNumber);
+        return game;
+    }
+
+    static String format(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        StringBuilder fen = new StringBuilder(90);
+        for (int row = 8; row >= 1; row--) {
+            int empty = 0;
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = board.getPiece(Bitboards.square(row, col));
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                fen.append(letter(piece));
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (row > 1) {
+                fen.append('/');
+            }
+        }
+
+        fen.append(game.getTeamTurn() == ChessGame.TeamColor.WHITE ? " w " : " b ");
+
+        int rights = board.castlingRights();
+        if (rights == 0) {
+            fen.append('-');
+        } else {
+            for (int i = 0; i < CASTLING_LETTERS.length(); i++) {
+                if ((rights & (1 << i)) != 0) {
+                    fen.append(CASTLING_LETTERS.charAt(i));
+                }
+            }
+        }
+
+        /* 앙파상 칸은 두 칸 전진한 폰이 지나간 칸 */
+        ChessPosition pawn = game.getLastDoublePawn();
+        fen.append(' ');
+        if (pawn == null) {
+            fen.append('-');
+        } else {
+            fen.append((char) ('a' + pawn.getColumn() - 1)).append(pawn.getRow() == 4 ? 3 : 6);
+        }
+
+        fen.append(' ').append(game.getHalfmoveClock()).append(' ').append(game.getFullmoveNumber());
+        return fen.toString();
+    }
+
+    private static ChessBoard parsePlacement(String placement) {
+        String[] rows = placement.split("/", -1);
+        if (rows.length != 8) {
+            throw new IllegalArgumentException("Piece placement needs 8 rows: " + placement);
+        }
+        ChessBoard board = new ChessBoard();
+        for (int i = 0; i < 8; i++) {
+            int row = 8 - i;
+            int col = 1;
+            for (char c : rows[i].toCharArray()) {
+                if (c >= '1' && c <= '8') {
+                    col += c - '0';
+                } else {
+                    int index = PIECE_LETTERS.indexOf(Character.toLowerCase(c));
+                    if (index < 0 || col > 8) {
+                        throw new IllegalArgumentException("Bad piece placement row: " + rows[i]);
+                    }
+                    ChessGame.TeamColor color = Character.isUpperCase(c) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+                    board.setPiece(Bitboards.square(row, col), new ChessPiece(color, PIECE_TYPES[index]));
+                    col++;
+                }
+            }
+            if (col != 9) {
+                throw new IllegalArgumentException("Row does not have 8 squares: " + rows[i]);
+            }
+        }
+        return board;
+    }
+
+    /* 캐슬링 권리가 없는 킹/룩은 움직인 것으로 표시한다 */
+    private static void applyCastling(ChessBoard board, String castling) {
+        if (!castling.equals("-") && !castling.matches("K?Q?k?q?")) {
+            throw new IllegalArgumentException("Bad castling field: " + castling);
+        }
+        int rights = 0;
+        for (int i = 0; i < CASTLING_LETTERS.length(); i++) {
+            if (castling.indexOf(CASTLING_LETTERS.charAt(i)) >= 0) {
+                rights |= 1 << i;
+            }
+        }
+        board.markMovedWithoutCastlingRights(rights);
+    }
+
+    /* 앙파상 칸 뒤에 상대 폰이 실제로 있을 때만 기록한다 */
+    private static ChessPosition parseEnPassant(ChessBoard board, String field, ChessGame.TeamColor turn) {
+        if (field.equals("-")) {
+            return null;
+        }
+        if (field.length() != 2 || field.charAt(0) < 'a' || field.charAt(0) > 'h'
+                || (field.charAt(1) != '3' && field.charAt(1) != '6')) {
+            throw new IllegalArgumentException("Bad en passant square: " + field);
+        }
+        int col = field.charAt(0) - 'a' + 1;
+        int pawnRow = field.charAt(1) == '3' ? 4 : 5;
+        ChessPiece pawn = board.getPiece(Bitboards.square(pawnRow, col));
+        if (pawn == null || pawn.getPieceType() != ChessPiece.PieceType.PAWN || pawn.getTeamColor() == turn) {
+            return null;
+        }
+        return ChessPosition.of(pawnRow, col);
+    }
+
+    private static int parseCounter(String field, int minimum) {
+        try {
+            int value = Integer.parseInt(field);
+            if (value < minimum) {
+                throw new IllegalArgumentException("Bad move counter: " + field);
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad move counter: " + field);
+        }
+    }
+
+    private static char letter(ChessPiece piece) {
+        char c = PIECE_LETTERS.charAt(piece.getPieceType().ordinal());
+        return piece.getTeamColor() == ChessGame.TeamColor.WHITE ? Character.toUpperCase(c) : c;
+    }
+}
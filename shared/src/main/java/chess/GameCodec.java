@@ -0,0 +1,161 @@
+package chess;
+
+import java.util.Base64;
+
+/**
+ * Compact binary form of a {@link ChessGame}, 39 bytes against several KB of
+ * Gson JSON. Used to store games and, for clients that ask for it, to send
+ * them over the websocket.
+ * <pre>
+ * byte  0      format version
+ * bytes 1-32   one nibble per square, square 0 in the low nibble of byte 1:
+ *              0 empty, 1-6 white piece (PieceType ordinal + 1), 9-14 black piece
+ * byte  33     bit 0 black to move, bits 1-4 castling rights (K, Q, k, q)
+ * byte  34     en passant file + 1, or 0 for none
+ * bytes 35-36  halfmove clock, big-endian
+ * bytes 37-38  fullmove number, big-endian
+ * </pre>
+ * As with FEN, kings and rooks that the castling rights do not cover decode
+ * as moved.
+ */
+public final class GameCodec {
+
+    public static final int VERSION = 1;
+    public static final int LENGTH = 39;
+
+    private static final int BLACK_PIECE = 8;
+    private static final int COUNTER_LIMIT = 0xFFFF;
+
+    private GameCodec() {
+    }
+
+    /**
+     * @param game the game to encode
+     * @return the game in the binary format, always {@value #LENGTH} bytes
+     */
+    public static byte[] encode(ChessGame game) {
+        byte[] bytes = new byte[LENGTH];
+        bytes[0] = VERSION;
+
+        ChessBoard board = game.getBoard();
+        long occupied = board.getOccupancy();
+        while (occupied != 0) {
+            int square = Long.numberOfTrailingZeros(occupied);
+            occupied &= occupied - 1;
+            ChessPiece piece = board.getPiece(square);
+            int nibble = piece.getPieceType().ordinal() + 1;
+            if (piece.getTeamColor() == ChessGame.TeamColor.BLACK) {
+                nibble |= BLACK_PIECE;
+            }
+            bytes[1 + (square >>> 1)] |= (byte) ((square & 1) == 0 ? nibble : nibble << 4);
+        }
+
+        int flags = board.castlingRights() << 1;
+        if (game.getTeamTurn() == ChessGame.TeamColor.BLACK) {
+            flags |= 1;
+        }
+        bytes[33] = (byte) flags;
+        ChessPosition lastDoublePawn = game.getLastDoublePawn();
+        bytes[34] = (byte) (lastDoublePawn == null ? 0 : lastDoublePawn.getColumn());
+        writeCounter(bytes, 35, game.getHalfmoveClock());
+        writeCounter(bytes, 37, game.getFullmoveNumber());
+        return bytes;
+    }
+
+    /**
+     * @param bytes a game encoded with {@link #encode}
+     * @return a new game in the encoded position
+     * @throws IllegalArgumentException if the bytes are not a valid encoding
+     */
+    public static ChessGame decode(byte[] bytes) {
+        if (bytes == null || bytes.length != LENGTH || bytes[0] != VERSION) {
+            throw new IllegalArgumentException("Not an encoded chess game");
+        }
+        ChessBoard board = new ChessBoard();
+        for (int square = 0; square < Bitboards.SQUARES; square++) {
+            int packed = bytes[1 + (square >>> 1)] & 0xFF;
+            int nibble = (square & 1) == 0 ? packed & 0x0F : packed >>> 4;
+            if (nibble == 0) {
+                continue;
+            }
+            int type = (nibble & ~BLACK_PIECE) - 1;
+            if (type < 0 || type >= ChessPiece.PieceType.values().length) {
+                throw new IllegalArgumentException("Bad piece code " + nibble + " on square " + square);
+            }
+            ChessGame.TeamColor color = (nibble & BLACK_PIECE) != 0 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+            board.setPiece(square, new ChessPiece(color, ChessPiece.PieceType.values()[type]));
+        }
+
+        int flags = bytes[33];
+        ChessGame.TeamColor turn = (flags & 1) != 0 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        board.markMovedWithoutCastlingRights((flags >>> 1) & 0x0F);
+
+        /* 앙파상 폰은 방금 둔 쪽, 즉 지금 차례가 아닌 쪽의 폰 */
+        int file = bytes[34];
+        if (file < 0 || file > 8) {
+            throw new IllegalArgumentException("Bad en passant file " + file);
+        }
+        ChessPosition lastDoublePawn = null;
+        if (file != 0) {
+            lastDoublePawn = ChessPosition.of(turn == ChessGame.TeamColor.WHITE ? 5 : 4, file);
+        }
+
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        game.setTeamTurn(turn);
+        game.setPositionState(lastDoublePawn, readCounter(bytes, 35), readCounter(bytes, 37));
+        return game;
+    }
+
+    /**
+     * Packs a move into 16 bits: from square in bits 0-5, to square in bits
+     * 6-11 and the promotion piece (PieceType ordinal + 1, or 0) in bits 12-14.
+     * Unlike the engine's internal encoding this needs no board to decode.
+     *
+     * @param move the move to pack
+     * @return the packed move, always between 0 and {@code Short.MAX_VALUE}
+     */
+    public static int encodeMove(ChessMove move) {
+        ChessPiece.PieceType promotion = move.getPromotionPiece();
+        int promotionCode = promotion == null ? 0 : promotion.ordinal() + 1;
+        return move.getStartPosition().getSquare() | (move.getEndPosition().getSquare() << 6) | (promotionCode << 12);
+    }
+
+    /**
+     * @param packed a move packed with {@link #encodeMove}
+     * @return the move
+     * @throws IllegalArgumentException if the value is not a packed move
+     */
+    public static ChessMove decodeMove(int packed) {
+        int promotionCode = packed >>> 12;
+        if (packed < 0 || promotionCode > ChessPiece.PieceType.values().length) {
+            throw new IllegalArgumentException("Not a packed move: " + packed);
+        }
+        ChessPiece.PieceType promotion = promotionCode == 0 ? null : ChessPiece.PieceType.values()[promotionCode - 1];
+        return new ChessMove(Bitboards.position(packed & 63), Bitboards.position((packed >>> 6) & 63), promotion);
+    }
+
+    /**
+     * @return the encoded game as Base64 text, for JSON messages
+     */
+    public static String encodeToString(ChessGame game) {
+        return Base64.getEncoder().encodeToString(encode(game));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the text is not an encoded game
+     */
+    public static ChessGame decodeFromString(String text) {
+        return decode(Base64.getDecoder().decode(text));
+    }
+
+    private static void writeCounter(byte[] bytes, int offset, int value) {
+        int clamped = Math.min(Math.max(value, 0), COUNTER_LIMIT);
+        bytes[offset] = (byte) (clamped >>> 8);
+        bytes[offset + 1] = (byte) clamped;
+    }
+
+    private static int readCounter(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+    }
+}
@@ -0,0 +1,162 @@
+package chess;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+/**
+ * Magic bitboard tables for rook and bishop attacks.
+ * <p>
+ * For each square, the occupied squares that can block the piece (its
+ * relevant occupancy) are multiplied by a "magic" number and shifted, giving
+ * a dense index into a table of precomputed attack sets. One multiply, one
+ * shift and one array load replace walking the rays.
+ * <p>
+ * The magic numbers are read from the {@value #RESOURCE} resource when it is
+ * on the classpath, which keeps startup fast. Any square without a working
+ * magic there is searched for at class load instead. Run this class's main
+ * method to print a fresh resource file.
+ */
+final class Magics {
+
+    static final String RESOURCE = "magics.txt";
+
+    private static final long SEED = 0x6D61_6769_63L;
+
+    private static final long[] ROOK_MASKS = new long[Bitboards.SQUARES];
+    private static final long[] ROOK_MAGICS = new long[Bitboards.SQUARES];
+    private static final int[] ROOK_SHIFTS = new int[Bitboards.SQUARES];
+    private static final long[][] ROOK_TABLE = new long[Bitboards.SQUARES][];
+
+    private static final long[] BISHOP_MASKS = new long[Bitboards.SQUARES];
+    private static final long[] BISHOP_MAGICS = new long[Bitboards.SQUARES];
+    private static final int[] BISHOP_SHIFTS = new int[Bitboards.SQUARES];
+    private static final long[][] BISHOP_TABLE = new long[Bitboards.SQUARES][];
+
+    static {
+        long[] stored = readResource();
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int square = 0; square < Bitboards.SQUARES; square++) {
+            ROOK_MASKS[square] = Attacks.relevantOccupancy(square, Attacks.ORTHOGONAL_DIRECTIONS);
+            ROOK_SHIFTS[square] = 64 - Long.bitCount(ROOK_MASKS[square]);
+            ROOK_MAGICS[square] = stored != null ? stored[square] : 0L;
+            ROOK_TABLE[square] = fillOrSearch(square, ROOK_MASKS[square], ROOK_MAGICS, ROOK_SHIFTS[square],
+                    Attacks.ORTHOGONAL_DIRECTIONS, random);
+
+            BISHOP_MASKS[square] = Attacks.relevantOccupancy(square, Attacks.DIAGONAL_DIRECTIONS);
+            BISHOP_SHIFTS[square] = 64 - Long.bitCount(BISHOP_MASKS[square]);
+            BISHOP_MAGICS[square] = stored != null ? stored[Bitboards.SQUARES + square] : 0L;
+            BISHOP_TABLE[square] = fillOrSearch(square, BISHOP_MASKS[square], BISHOP_MAGICS, BISHOP_SHIFTS[square],
+                    Attacks.DIAGONAL_DIRECTIONS, random);
+        }
+    }
+
+    private Magics() {
+    }
+
+    static long rookAttacks(int square, long occupied) {
+        return ROOK_TABLE[square][(int) (((occupied & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square])];
+    }
+
+    static long bishopAttacks(int square, long occupied) {
+        return BISHOP_TABLE[square][(int) (((occupied & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square])];
+    }
+
+    /**
+     * Prints the magic numbers in use, in the format of the {@value #RESOURCE} resource
+     */
+    public static void main(String[] args) {
+        write(System.out);
+    }
+
+    static void write(PrintStream out) {
+        out.println("# Rook magics for squares 0..63, then bishop magics for squares 0..63");
+        for (long magic : ROOK_MAGICS) {
+            out.println(Long.toHexString(magic));
+        }
+        for (long magic : BISHOP_MAGICS) {
+            out.println(Long.toHexString(magic));
+        }
+    }
+
+    /* 저장된 매직이 맞으면 그걸로 표를 채우고, 아니면 새로 찾는다 */
+    private static long[] fillOrSearch(int square, long mask, long[] magics, int shift, int[] directions,
+                                       SplittableRandom random) {
+        /* mask 의 모든 부분집합과 그때의 공격 칸을 한 번만 계산해 둔다 (Carry-Rippler) */
+        int size = 1 << Long.bitCount(mask);
+        long[] occupancies = new long[size];
+        long[] attacks = new long[size];
+        long subset = 0L;
+        for (int i = 0; i < size; i++) {
+            occupancies[i] = subset;
+            attacks[i] = Attacks.slidingAttacks(square, subset, directions);
+            subset = (subset - mask) & mask;
+        }
+
+        long[] table = new long[size];
+        int[] filledIn = new int[size];
+        int attempt = 1;
+        if (magics[square] != 0 && fill(table, filledIn, attempt, occupancies, attacks, magics[square], shift)) {
+            return table;
+        }
+        do {
+            attempt++;
+            magics[square] = candidate(random, mask);
+        } while (!fill(table, filledIn, attempt, occupancies, attacks, magics[square], shift));
+        return table;
+    }
+
+    /* 곱했을 때 위쪽 바이트에 비트가 충분히 남는, 1 비트가 적은 난수 */
+    private static long candidate(SplittableRandom random, long mask) {
+        while (true) {
+            long magic = random.nextLong() & random.nextLong() & random.nextLong();
+            if (Long.bitCount((mask * magic) & 0xFF00_0000_0000_0000L) >= 6) {
+                return magic;
+            }
+        }
+    }
+
+    /*
+     * 한 매직으로 표를 채운다. 공격 칸이 다른 두 점유가 같은 인덱스에 오면 실패.
+     * filledIn[i] == attempt 이면 이번 시도에서 채운 칸이라 표를 매번 지우지 않아도 된다.
+     */
+    private static boolean fill(long[] table, int[] filledIn, int attempt, long[] occupancies, long[] attacks,
+                                long magic, int shift) {
+        for (int i = 0; i < occupancies.length; i++) {
+            int index = (int) ((occupancies[i] * magic) >>> shift);
+            if (filledIn[index] != attempt) {
+                filledIn[index] = attempt;
+                table[index] = attacks[i];
+            } else if (table[index] != attacks[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long[] readResource() {
+        try (InputStream in = Magics.class.getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                return null;
+            }
+            long[] magics = new long[2 * Bitboards.SQUARES];
+            int count = 0;
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null && count < magics.length) {
+                line = line.strip();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    magics[count++] = Long.parseUnsignedLong(line, 16);
+                }
+            }
+            return magics;
+        } catch (IOException | NumberFormatException e) {
+            /* 읽을 수 없으면 전부 새로 찾는다 */
+            return null;
+        }
+    }
+}
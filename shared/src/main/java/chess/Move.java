@@ -0,0 +1,77 @@
+package chess;
+
+/**
+ * Compact move encoding used inside the engine. A move fits in 16 bits of an
+ * int, so move lists are plain int arrays and generating moves creates no
+ * objects; {@link ChessMove} is only built at the public API.
+ * <pre>
+ * bits  0-5   from square (see {@link Bitboards#square})
+ * bits  6-11  to square
+ * bits 12-15  kind: QUIET, DOUBLE_PAWN_PUSH, CASTLING, EN_PASSANT or
+ *             PROMOTION + index into PROMOTION_TYPES
+ * </pre>
+ */
+final class Move {
+
+    static final int QUIET = 0;
+    static final int DOUBLE_PAWN_PUSH = 1;
+    static final int CASTLING = 2;
+    static final int EN_PASSANT = 3;
+    static final int PROMOTION = 4;
+
+    /* 프로모션 종류 순서 (PROMOTION + 인덱스) */
+    static final ChessPiece.PieceType[] PROMOTION_TYPES = {
+            ChessPiece.PieceType.QUEEN,
+            ChessPiece.PieceType.BISHOP,
+            ChessPiece.PieceType.KNIGHT,
+            ChessPiece.PieceType.ROOK
+    };
+
+    private Move() {
+    }
+
+    static int of(int from, int to) {
+        return from | (to << 6);
+    }
+
+    static int of(int from, int to, int kind) {
+        return from | (to << 6) | (kind << 12);
+    }
+
+    static int from(int move) {
+        return move & 63;
+    }
+
+    static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    static int kind(int move) {
+        return move >>> 12;
+    }
+
+    static boolean isPromotion(int move) {
+        return kind(move) >= PROMOTION;
+    }
+
+    /**
+     * @return the piece a pawn promotes to, or null if the move is not a promotion
+     */
+    static ChessPiece.PieceType promotion(int move) {
+        int kind = kind(move);
+        return kind >= PROMOTION ? PROMOTION_TYPES[kind - PROMOTION] : null;
+    }
+
+    static int promotionKind(ChessPiece.PieceType type) {
+        for (int i = 0; i < PROMOTION_TYPES.length; i++) {
+            if (PROMOTION_TYPES[i] == type) {
+                return PROMOTION + i;
+            }
+        }
+        throw new IllegalArgumentException("Cannot promote to " + type);
+    }
+
+    static ChessMove toChessMove(int move) {
+        return new ChessMove(Bitboards.position(from(move)), Bitboards.position(to(move)), promotion(move));
+    }
+}
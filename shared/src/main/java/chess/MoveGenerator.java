@@ -0,0 +1,266 @@
+package chess;
+
+/**
+ * Legal move generator for one side of a position.
+ * <p>
+ * The pieces giving check, the check-evasion mask and the pinned pieces are
+ * worked out once in {@link #init}, so every move emitted is already legal
+ * and nothing has to be played out and tested for check afterwards. En passant
+ * is the one exception: it removes two pieces from a rank at once, so it is
+ * verified by playing it on the board and taking it back.
+ * <p>
+ * Moves are written to a {@link MoveList} as {@link Move} ints, and one
+ * generator can be re-initialised for each position, so generating the moves
+ * of a position allocates nothing.
+ */
+final class MoveGenerator {
+
+    private static final int[] KING_SIDE_EMPTY = {6, 7};
+    private static final int[] KING_SIDE_SAFE = {6, 7};
+    private static final int[] QUEEN_SIDE_EMPTY = {2, 3, 4};
+    private static final int[] QUEEN_SIDE_SAFE = {4, 3};
+
+    private ChessBoard board;
+    private ChessGame.TeamColor color;
+    private ChessGame.TeamColor opponent;
+    /* 직전에 두 칸 전진한 상대 폰의 칸, 없으면 -1 */
+    private int doublePawnSquare;
+    private int kingSquare;
+    private long own;
+    private long enemy;
+    private long occupied;
+
+    private long checkers;
+    /* 킹이 아닌 말이 갈 수 있는 칸 (체크를 막거나 체크하는 말을 잡는 칸) */
+    private long checkMask;
+    private long pinned;
+    private int pinCount;
+    private final int[] pinSquares = new int[8];
+    private final long[] pinRays = new long[8];
+
+    MoveGenerator() {
+    }
+
+    /**
+     * Prepares this generator for the given side of a position
+     *
+     * @param doublePawnSquare square of a pawn that just advanced two squares, or -1
+     * @return this generator
+     */
+    MoveGenerator init(ChessBoard board, ChessGame.TeamColor color, int doublePawnSquare) {
+        this.board = board;
+        this.color = color;
+        this.opponent = Attacks.opposite(color);
+        this.doublePawnSquare = doublePawnSquare;
+        this.kingSquare = board.kingSquare(color);
+        this.own = board.getOccupancy(color);
+        this.enemy = board.getOccupancy(opponent);
+        this.occupied = own | enemy;
+
+        checkers = 0L;
+        checkMask = ~0L;
+        pinned = 0L;
+        pinCount = 0;
+        if (kingSquare >= 0) {
+            findChecks();
+            findPins();
+        }
+        return this;
+    }
+
+    boolean isInCheck() {
+        return checkers != 0;
+    }
+
+    /**
+     * Adds every legal move of the piece on the given square
+     */
+    void generate(int from, MoveList moves) {
+        ChessPiece piece = board.getPiece(from);
+        if (piece == null || piece.getTeamColor() != color) {
+            return;
+        }
+        switch (piece.getPieceType()) {
+            case KING -> generateKingMoves(from, piece, moves);
+            case PAWN -> generatePawnMoves(from, moves);
+            case KNIGHT -> addMoves(from, Attacks.knightAttacks(from) & ~own & checkMask & pinMask(from), moves);
+            case BISHOP -> addMoves(from, Attacks.bishopAttacks(from, occupied) & ~own & checkMask & pinMask(from), moves);
+            case ROOK -> addMoves(from, Attacks.rookAttacks(from, occupied) & ~own & checkMask & pinMask(from), moves);
+            case QUEEN -> addMoves(from, Attacks.queenAttacks(from, occupied) & ~own & checkMask & pinMask(from), moves);
+        }
+    }
+
+    /**
+     * Adds every legal move of the side this generator was initialised for
+     */
+    void generateAll(MoveList moves) {
+        long pieces = own;
+        while (pieces != 0) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            generate(from, moves);
+        }
+    }
+
+    private void findChecks() {
+        checkers = Attacks.attackersOf(board, kingSquare, opponent, occupied);
+        int count = Long.bitCount(checkers);
+        if (count == 1) {
+            checkMask = checkers | Attacks.between(kingSquare, Long.numberOfTrailingZeros(checkers));
+        } else if (count > 1) {
+            /* 양수 체크: 킹만 움직일 수 있다 */
+            checkMask = 0L;
+        }
+    }
+
+    /* 킹과 같은 줄에 있는 상대 슬라이더와 킹 사이에 우리 말이 딱 하나 있으면 그 말은 핀 */
+    private void findPins() {
+        long queens = board.getBitboard(opponent, ChessPiece.PieceType.QUEEN);
+        long snipers = (Attacks.rookAttacks(kingSquare, 0L)
+                & (board.getBitboard(opponent, ChessPiece.PieceType.ROOK) | queens))
+                | (Attacks.bishopAttacks(kingSquare, 0L)
+                & (board.getBitboard(opponent, ChessPiece.PieceType.BISHOP) | queens));
+        while (snipers != 0) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+
+            long line = Attacks.between(kingSquare, sniper);
+            long blockers = line & occupied;
+            if (Long.bitCount(blockers) == 1 && (blockers & own) != 0) {
+                pinned |= blockers;
+                pinSquares[pinCount] = Long.numberOfTrailingZeros(blockers);
+                pinRays[pinCount] = line | Bitboards.bit(sniper);
+                pinCount++;
+            }
+        }
+    }
+
+    private long pinMask(int square) {
+        if ((pinned & Bitboards.bit(square)) == 0) {
+            return ~0L;
+        }
+        for (int i = 0; i < pinCount; i++) {
+            if (pinSquares[i] == square) {
+                return pinRays[i];
+            }
+        }
+        return ~0L;
+    }
+
+    private void generateKingMoves(int from, ChessPiece king, MoveList moves) {
+        /* 킹이 움직이면 원래 칸은 비므로 점유에서 빼고 공격 여부를 본다 */
+        long withoutKing = occupied & ~Bitboards.bit(from);
+        long targets = Attacks.kingAttacks(from) & ~own;
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            if (!Attacks.isSquareAttacked(board, to, opponent, withoutKing, Bitboards.bit(to))) {
+                moves.add(Move.of(from, to));
+            }
+        }
+
+        /* 캐슬링 */
+        int homeRow = (color == ChessGame.TeamColor.WHITE) ? 1 : 8;
+        if (king.hasMoved() || checkers != 0 || from != Bitboards.square(homeRow, 5)) {
+            return;
+        }
+        if (canCastle(homeRow, 8, KING_SIDE_EMPTY, KING_SIDE_SAFE)) {
+            moves.add(Move.of(from, Bitboards.square(homeRow, 7), Move.CASTLING));
+        }
+        if (canCastle(homeRow, 1, QUEEN_SIDE_EMPTY, QUEEN_SIDE_SAFE)) {
+            moves.add(Move.of(from, Bitboards.square(homeRow, 3), Move.CASTLING));
+        }
+    }
+
+    private boolean canCastle(int row, int rookColumn, int[] emptyColumns, int[] safeColumns) {
+        ChessPiece rook = board.getPiece(Bitboards.square(row, rookColumn));
+        if (rook == null || rook.getPieceType() != ChessPiece.PieceType.ROOK
+                || rook.getTeamColor() != color || rook.hasMoved()) {
+            return false;
+        }
+        for (int col : emptyColumns) {
+            if ((occupied & Bitboards.bit(Bitboards.square(row, col))) != 0) {
+                return false;
+            }
+        }
+        for (int col : safeColumns) {
+            if (Attacks.isSquareAttacked(board, Bitboards.square(row, col), opponent)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void generatePawnMoves(int from, MoveList moves) {
+        boolean white = color == ChessGame.TeamColor.WHITE;
+        int direction = white ? 1 : -1;
+        int startRow = white ? 2 : 7;
+        int finalRow = white ? 8 : 1;
+        int row = Bitboards.row(from);
+        int col = Bitboards.column(from);
+        int nextRow = row + direction;
+        if (nextRow < 1 || nextRow > 8) {
+            return;
+        }
+        long allowed = checkMask & pinMask(from);
+
+        // 한 칸 / 두 칸 앞으로
+        int oneStep = Bitboards.square(nextRow, col);
+        if ((occupied & Bitboards.bit(oneStep)) == 0) {
+            if ((allowed & Bitboards.bit(oneStep)) != 0) {
+                addPawnMove(from, oneStep, nextRow == finalRow, moves);
+            }
+            if (row == startRow) {
+                int twoStep = Bitboards.square(row + 2 * direction, col);
+                if ((occupied & Bitboards.bit(twoStep)) == 0 && (allowed & Bitboards.bit(twoStep)) != 0) {
+                    moves.add(Move.of(from, twoStep, Move.DOUBLE_PAWN_PUSH));
+                }
+            }
+        }
+
+        // 대각선 캡처
+        long captures = Attacks.pawnAttacks(from, color) & enemy & allowed;
+        while (captures != 0) {
+            int to = Long.numberOfTrailingZeros(captures);
+            captures &= captures - 1;
+            addPawnMove(from, to, nextRow == finalRow, moves);
+        }
+
+        // 앙파상
+        int thePawn = white ? 5 : 4;
+        if (doublePawnSquare >= 0 && row == thePawn && Bitboards.row(doublePawnSquare) == row
+                && Math.abs(Bitboards.column(doublePawnSquare) - col) == 1) {
+            ChessPiece passed = board.getPiece(doublePawnSquare);
+            int to = Bitboards.square(nextRow, Bitboards.column(doublePawnSquare));
+            if (passed != null && passed.getTeamColor() == opponent
+                    && passed.getPieceType() == ChessPiece.PieceType.PAWN
+                    && (occupied & Bitboards.bit(to)) == 0) {
+                int enPassant = Move.of(from, to, Move.EN_PASSANT);
+                board.makeMove(enPassant);
+                boolean exposesKing = kingSquare >= 0 && Attacks.isSquareAttacked(board, kingSquare, opponent);
+                board.unmakeMove();
+                if (!exposesKing) {
+                    moves.add(enPassant);
+                }
+            }
+        }
+    }
+
+    private void addPawnMove(int from, int to, boolean promotion, MoveList moves) {
+        if (!promotion) {
+            moves.add(Move.of(from, to));
+            return;
+        }
+        for (int i = 0; i < Move.PROMOTION_TYPES.length; i++) {
+            moves.add(Move.of(from, to, Move.PROMOTION + i));
+        }
+    }
+
+    private void addMoves(int from, long targets, MoveList moves) {
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            moves.add(Move.of(from, to));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reusable buffer of {@link Move}-encoded moves. Clear it and fill it again
+ * instead of allocating a new list for every position.
+ */
+final class MoveList {
+
+    /* 한 국면에서 가능한 합법 수는 최대 218개 */
+    static final int CAPACITY = 256;
+
+    private final int[] moves = new int[CAPACITY];
+    private int size;
+
+    void add(int move) {
+        moves[size++] = move;
+    }
+
+    int get(int index) {
+        return moves[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return the moves as ChessMove objects, for the public API
+     */
+    List<ChessMove> toChessMoves() {
+        List<ChessMove> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(Move.toChessMove(moves[i]));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,118 @@
+package chess;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Perft ("performance test"): counts the leaf nodes of the legal move tree to
+ * a fixed depth. Comparing the counts with published reference numbers checks
+ * the move generator, and the node rate measures its speed.
+ */
+public final class Perft {
+
+    /**
+     * Standard reference positions with their known node counts, indexed by
+     * depth (nodeCounts[0] is depth 1).
+     */
+    public enum ReferencePosition {
+        START("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                20, 400, 8_902, 197_281, 4_865_609),
+        KIWIPETE("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                48, 2_039, 97_862, 4_085_603),
+        POSITION_3("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                14, 191, 2_812, 43_238, 674_624),
+        POSITION_4("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                6, 264, 9_467, 422_333),
+        POSITION_5("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                44, 1_486, 62_379, 2_103_487),
+        POSITION_6("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+                46, 2_079, 89_890, 3_894_594);
+
+        private final String fen;
+        private final long[] nodeCounts;
+
+        ReferencePosition(String fen, long... nodeCounts) {
+            this.fen = fen;
+            this.nodeCounts = nodeCounts;
+        }
+
+        public String fen() {
+            return fen;
+        }
+
+        public int maxDepth() {
+            return nodeCounts.length;
+        }
+
+        public long expectedNodes(int depth) {
+            return nodeCounts[depth - 1];
+        }
+
+        /**
+         * @return a new game set up at this position
+         */
+        public ChessGame newGame() {
+            return ChessGame.fromFen(fen);
+        }
+    }
+
+    private Perft() {
+    }
+
+    /**
+     * Counts leaf nodes of the legal move tree below the game's current
+     * position. The game is played forward and taken back in place, and is
+     * left exactly as it was.
+     *
+     * @param game  the position to search from
+     * @param depth number of plies to search
+     * @return number of positions reached at the given depth
+     */
+    public static long perft(ChessGame game, int depth) {
+        return perft(game, depth, newMoveLists(depth));
+    }
+
+    /**
+     * Same as {@link #perft(ChessGame, int)}, split by the first move. Useful
+     * for finding which branch disagrees with a reference engine.
+     */
+    public static Map<ChessMove, Long> divide(ChessGame game, int depth) {
+        MoveList[] moveLists = newMoveLists(depth);
+        MoveList moves = moveLists[depth - 1];
+        game.generateLegalMoves(moves);
+        Map<ChessMove, Long> counts = new LinkedHashMap<>();
+        for (int i = 0; i < moves.size(); i++) {
+            game.applyMove(moves.get(i));
+            counts.put(Move.toChessMove(moves.get(i)), perft(game, depth - 1, moveLists));
+            game.undoMove();
+        }
+        return counts;
+    }
+
+    /* 깊이마다 수 목록 하나씩 미리 만들어 두고 재사용한다 (moveLists[depth - 1]) */
+    private static MoveList[] newMoveLists(int depth) {
+        MoveList[] moveLists = new MoveList[Math.max(depth, 1)];
+        for (int i = 0; i < moveLists.length; i++) {
+            moveLists[i] = new MoveList();
+        }
+        return moveLists;
+    }
+
+    private static long perft(ChessGame game, int depth, MoveList[] moveLists) {
+        if (depth == 0) {
+            return 1;
+        }
+        MoveList moves = moveLists[depth - 1];
+        game.generateLegalMoves(moves);
+        if (depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            game.applyMove(moves.get(i));
+            nodes += perft(game, depth - 1, moveLists);
+            game.undoMove();
+        }
+        return nodes;
+    }
+}
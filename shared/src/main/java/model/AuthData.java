@@ -1,4 +1,12 @@
 package model;
 
-public record AuthData(String authToken, String username) {
+import java.time.Instant;
+
+public record AuthData(String authToken, String username, Instant expiresAt) {
+
+    // 만료 시각을 모르는 경우 (메모리 DAO, 새로 만든 토큰)
+    public AuthData(String authToken, String username) {
+        this(authToken, username, null);
+    }
+
 }
@@ -20,12 +20,23 @@ public class UserGameCommand {
 
     private final ChessMove move;
 
+    /* CONNECT 에서 true 면 서버가 LOAD_GAME 을 GameCodec 형식으로 보낸다 */
+    private final Boolean compactGame;
+
     public UserGameCommand(CommandType commandType, String authToken, Integer gameID) {
         this.commandType = commandType;
         this.authToken = authToken;
         this.gameID = gameID;
         this.move = null;
+        this.compactGame = null;
+    }
 
+    public UserGameCommand(CommandType commandType, String authToken, Integer gameID, boolean compactGame) {
+        this.commandType = commandType;
+        this.authToken = authToken;
+        this.gameID = gameID;
+        this.move = null;
+        this.compactGame = compactGame;
     }
 
     public UserGameCommand(CommandType commandType, String authToken, Integer gameID, ChessMove move) {
@@ -33,6 +44,7 @@ public class UserGameCommand {
         this.authToken = authToken;
         this.gameID = gameID;
         this.move = move;
+        this.compactGame = null;
     }
 
     public enum CommandType {
@@ -58,6 +70,14 @@ public class UserGameCommand {
         return move;
     }
 
+    /**
+     * @return true if the client asked for LOAD_GAME messages in the compact
+     * GameCodec form
+     */
+    public boolean wantsCompactGame() {
+        return Boolean.TRUE.equals(compactGame);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -70,12 +90,13 @@ public class UserGameCommand {
         return getCommandType() == that.getCommandType() &&
                 Objects.equals(getAuthToken(), that.getAuthToken()) &&
                 Objects.equals(getGameID(), that.getGameID()) &&
-                Objects.equals(move, that.move);
+                Objects.equals(move, that.move) &&
+                wantsCompactGame() == that.wantsCompactGame();
 
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(getCommandType(), getAuthToken(), getGameID(), getMove());
+        return Objects.hash(getCommandType(), getAuthToken(), getGameID(), getMove(), wantsCompactGame());
     }
 }
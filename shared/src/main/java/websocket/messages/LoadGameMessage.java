@@ -2,23 +2,50 @@ package websocket.messages;
 
 import chess.ChessGame;
 import chess.ChessMove;
+import chess.GameCodec;
 
 public class LoadGameMessage extends ServerMessage {
     private final ChessGame game;
     private final ChessMove moveMade;
+    /* 클라이언트가 원하면 game 대신 GameCodec 으로 줄인 Base64 문자열을 보낸다 */
+    private final String gameState;
+    private transient ChessGame decodedGame;
 
     public LoadGameMessage(ChessGame game, ChessMove moveMade) {
         super(ServerMessageType.LOAD_GAME);
         this.game = game;
         this.moveMade = moveMade;
+        this.gameState = null;
+    }
+
+    private LoadGameMessage(String gameState, ChessMove moveMade) {
+        super(ServerMessageType.LOAD_GAME);
+        this.game = null;
+        this.moveMade = moveMade;
+        this.gameState = gameState;
+    }
+
+    /**
+     * Creates a message that carries the game in the compact {@link GameCodec}
+     * form instead of the full JSON object graph. {@link #getGame()} decodes it.
+     */
+    public static LoadGameMessage compact(ChessGame game, ChessMove moveMade) {
+        return new LoadGameMessage(GameCodec.encodeToString(game), moveMade);
     }
 
     public ChessGame getGame() {
-        return game;
+        if (game == null && gameState != null && decodedGame == null) {
+            decodedGame = GameCodec.decodeFromString(gameState);
+        }
+        return game != null ? game : decodedGame;
     }
 
     public ChessMove getMoveMade() {
         return moveMade;
     }
 
+    public boolean isCompact() {
+        return gameState != null;
+    }
+
 }
@@ -0,0 +1,39 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AttacksTest {
+
+    @Test
+    void magicAttacksMatchRayScan() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int square = 0; square < Bitboards.SQUARES; square++) {
+            for (int i = 0; i < 200; i++) {
+                // 빈 보드부터 빽빽한 보드까지 골고루
+                long occupied = random.nextLong();
+                if (i % 2 == 0) {
+                    occupied &= random.nextLong();
+                }
+                if (i % 4 == 0) {
+                    occupied &= random.nextLong();
+                }
+                assertEquals(Attacks.slidingAttacks(square, occupied, Attacks.ORTHOGONAL_DIRECTIONS),
+                        Attacks.rookAttacks(square, occupied), "rook attacks differ on square " + square);
+                assertEquals(Attacks.slidingAttacks(square, occupied, Attacks.DIAGONAL_DIRECTIONS),
+                        Attacks.bishopAttacks(square, occupied), "bishop attacks differ on square " + square);
+            }
+        }
+    }
+
+    @Test
+    void emptyBoardAttacks() {
+        int d4 = Bitboards.square(4, 4);
+        assertEquals(14, Long.bitCount(Attacks.rookAttacks(d4, 0L)), "rook on d4 should reach 14 squares");
+        assertEquals(13, Long.bitCount(Attacks.bishopAttacks(d4, 0L)), "bishop on d4 should reach 13 squares");
+        assertEquals(7, Long.bitCount(Attacks.bishopAttacks(0, 0L)), "bishop in the corner should reach 7 squares");
+    }
+}
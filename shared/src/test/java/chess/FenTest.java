@@ -0,0 +1,79 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FenTest {
+
+    private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(ChessPosition.of(startRow, startCol), ChessPosition.of(endRow, endCol), null);
+    }
+
+    @Test
+    void newGameIsStartPosition() {
+        assertEquals(START, new ChessGame().toFen());
+        assertEquals(new ChessGame(), ChessGame.fromFen(START), "start FEN should give the start position");
+    }
+
+    @ParameterizedTest
+    @EnumSource(Perft.ReferencePosition.class)
+    void roundTrip(Perft.ReferencePosition position) {
+        ChessGame game = ChessGame.fromFen(position.fen());
+        assertEquals(position.fen(), game.toFen(), "FEN changed on a round trip");
+        assertEquals(game.getZobristKey(), ChessGame.fromFen(game.toFen()).getZobristKey());
+    }
+
+    @Test
+    void movesUpdateEnPassantCastlingAndCounters() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 5, 4, 5));
+        assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1", game.toFen());
+
+        game.makeMove(move(8, 7, 6, 6));
+        game.makeMove(move(1, 5, 2, 5));
+        assertEquals("rnbqkb1r/pppppppp/5n2/8/4P3/8/PPPPKPPP/RNBQ1BNR b kq - 2 2", game.toFen(),
+                "king move should drop white castling rights and count quiet half moves");
+
+        ChessGame restored = ChessGame.fromFen(game.toFen());
+        assertEquals(game, restored);
+        assertEquals(game.getZobristKey(), restored.getZobristKey());
+        assertEquals(game.validMoves(ChessPosition.of(8, 5)), restored.validMoves(ChessPosition.of(8, 5)));
+    }
+
+    @Test
+    void enPassantSquareAllowsCapture() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1");
+        assertTrue(game.validMoves(ChessPosition.of(5, 5)).contains(move(5, 5, 6, 4)),
+                "en passant capture missing after loading FEN");
+    }
+
+    @Test
+    void countersAreOptional() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 b - -");
+        assertEquals(0, game.getHalfmoveClock());
+        assertEquals(1, game.getFullmoveNumber());
+        assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+    }
+
+    @Test
+    void invalidFenIsRejected() {
+        String[] invalid = {
+                "",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNX w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KX - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e5 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - x 1",
+        };
+        for (String fen : invalid) {
+            assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(fen), "accepted: " + fen);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import websocket.messages.LoadGameMessage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameCodecTest {
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(ChessPosition.of(startRow, startCol), ChessPosition.of(endRow, endCol), null);
+    }
+
+    private static void assertSameGame(ChessGame expected, ChessGame actual) {
+        assertEquals(expected, actual, "board or side to move changed");
+        assertEquals(expected.toFen(), actual.toFen(), "castling, en passant or counters changed");
+        assertEquals(expected.getZobristKey(), actual.getZobristKey());
+        assertEquals(expected.legalMoves().size(), actual.legalMoves().size(), "legal moves changed");
+    }
+
+    @ParameterizedTest
+    @EnumSource(Perft.ReferencePosition.class)
+    void referencePositionsRoundTrip(Perft.ReferencePosition position) {
+        ChessGame game = position.newGame();
+        byte[] bytes = GameCodec.encode(game);
+        assertEquals(GameCodec.LENGTH, bytes.length);
+        assertSameGame(game, GameCodec.decode(bytes));
+    }
+
+    @Test
+    void playedGameRoundTrips() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        assertSameGame(game, GameCodec.decode(GameCodec.encode(game)));
+
+        // 앙파상 칸, 캐슬링 권리, 수 카운터가 모두 바뀌는 수순
+        game.makeMove(move(2, 5, 4, 5));
+        assertSameGame(game, GameCodec.decode(GameCodec.encode(game)));
+        game.makeMove(move(7, 1, 5, 1));
+        game.makeMove(move(1, 7, 3, 6));
+        game.makeMove(move(8, 1, 6, 1));
+        game.makeMove(move(1, 6, 3, 4));
+        game.makeMove(move(6, 1, 6, 2));
+        assertSameGame(game, GameCodec.decode(GameCodec.encode(game)));
+    }
+
+    @Test
+    void gsonAndCodecAgree() {
+        Gson gson = new Gson();
+        ChessGame game = Perft.ReferencePosition.KIWIPETE.newGame();
+        ChessGame fromJson = gson.fromJson(gson.toJson(game), ChessGame.class);
+        assertSameGame(fromJson, GameCodec.decode(GameCodec.encode(game)));
+        assertTrue(GameCodec.encode(game).length * 10 < gson.toJson(game).length(),
+                "binary form should be far smaller than JSON");
+    }
+
+    @Test
+    void compactLoadGameMessage() {
+        Gson gson = new Gson();
+        ChessGame game = new ChessGame();
+        ChessMove lastMove = move(2, 5, 4, 5);
+        String json = gson.toJson(LoadGameMessage.compact(game, lastMove));
+
+        LoadGameMessage received = gson.fromJson(json, LoadGameMessage.class);
+        assertTrue(received.isCompact());
+        assertEquals(lastMove, received.getMoveMade());
+        assertSameGame(game, received.getGame());
+    }
+
+    @Test
+    void packedMovesRoundTrip() {
+        ChessGame game = Perft.ReferencePosition.POSITION_4.newGame();
+        for (ChessMove move : game.legalMoves()) {
+            int packed = GameCodec.encodeMove(move);
+            assertTrue(packed >= 0 && packed <= Short.MAX_VALUE, "packed move must fit a SMALLINT");
+            assertEquals(move, GameCodec.decodeMove(packed));
+        }
+        ChessMove promotion = new ChessMove(ChessPosition.of(7, 1), ChessPosition.of(8, 2), ChessPiece.PieceType.KNIGHT);
+        assertEquals(promotion, GameCodec.decodeMove(GameCodec.encodeMove(promotion)));
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decodeMove(7 << 12));
+    }
+
+    @Test
+    void plyFollowsMoves() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        assertEquals(0, game.getPly());
+        game.makeMove(move(2, 5, 4, 5));
+        assertEquals(1, game.getPly());
+        game.makeMove(move(7, 5, 5, 5));
+        assertEquals(2, game.getPly());
+        assertEquals(2, GameCodec.decode(GameCodec.encode(game)).getPly());
+    }
+
+    @Test
+    void invalidBytesAreRejected() {
+        byte[] bytes = GameCodec.encode(new ChessGame());
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(new byte[3]));
+
+        byte[] badVersion = bytes.clone();
+        badVersion[0] = 99;
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(badVersion));
+
+        byte[] badPiece = bytes.clone();
+        badPiece[20] = 0x07;
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(badPiece));
+    }
+}
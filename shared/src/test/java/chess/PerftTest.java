@@ -0,0 +1,35 @@
+package chess;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PerftTest {
+
+    // 테스트 시간을 줄이려고 노드 수 20만 개까지만 센다
+    private static final long NODE_LIMIT = 200_000;
+
+    @ParameterizedTest
+    @EnumSource(Perft.ReferencePosition.class)
+    void referenceNodeCounts(Perft.ReferencePosition position) {
+        ChessGame game = position.newGame();
+        for (int depth = 1; depth <= position.maxDepth() && position.expectedNodes(depth) <= NODE_LIMIT; depth++) {
+            assertEquals(position.expectedNodes(depth), Perft.perft(game, depth),
+                    "wrong node count for " + position + " at depth " + depth);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(Perft.ReferencePosition.class)
+    void perftLeavesGameUnchanged(Perft.ReferencePosition position) {
+        ChessGame game = position.newGame();
+        long key = game.getZobristKey();
+        ChessBoard before = game.getBoard().simulationBoard();
+
+        Perft.perft(game, 3);
+
+        assertEquals(key, game.getZobristKey(), "perft changed the position key");
+        assertEquals(before, game.getBoard(), "perft changed the board");
+    }
+}
@@ -0,0 +1,71 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ZobristKeyTest {
+
+    private static ChessMove move(int startRow, int startCol, int endRow, int endCol) {
+        return new ChessMove(new ChessPosition(startRow, startCol), new ChessPosition(endRow, endCol), null);
+    }
+
+    @Test
+    void transpositionsHaveSameKey() throws InvalidMoveException {
+        // 1. Nf3 Nf6 2. Nc3 Nc6 와 1. Nc3 Nc6 2. Nf3 Nf6 는 같은 국면
+        ChessGame first = new ChessGame();
+        first.makeMove(move(1, 7, 3, 6));
+        first.makeMove(move(8, 7, 6, 6));
+        first.makeMove(move(1, 2, 3, 3));
+        first.makeMove(move(8, 2, 6, 3));
+
+        ChessGame second = new ChessGame();
+        second.makeMove(move(1, 2, 3, 3));
+        second.makeMove(move(8, 2, 6, 3));
+        second.makeMove(move(1, 7, 3, 6));
+        second.makeMove(move(8, 7, 6, 6));
+
+        assertEquals(first.getZobristKey(), second.getZobristKey(), "transposed games should share a key");
+        assertNotEquals(new ChessGame().getZobristKey(), first.getZobristKey(), "different positions share a key");
+    }
+
+    @Test
+    void keyDependsOnSideToMoveCastlingAndEnPassant() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        long start = game.getZobristKey();
+
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        assertNotEquals(start, game.getZobristKey(), "side to move is not part of the key");
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+        assertEquals(start, game.getZobristKey());
+
+        game.getBoard().getPiece(new ChessPosition(1, 8)).markMoved();
+        assertNotEquals(start, game.getZobristKey(), "castling rights are not part of the key");
+
+        ChessGame doublePush = new ChessGame();
+        doublePush.makeMove(move(2, 5, 4, 5));
+        ChessGame samePlacement = new ChessGame();
+        samePlacement.setBoard(doublePush.getBoard().simulationBoard());
+        samePlacement.setTeamTurn(ChessGame.TeamColor.BLACK);
+        assertNotEquals(doublePush.getZobristKey(), samePlacement.getZobristKey(),
+                "en passant file is not part of the key");
+    }
+
+    @Test
+    void incrementalKeyMatchesFreshBoard() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        long start = board.getZobristKey();
+
+        board.makeMove(move(2, 5, 4, 5));
+        board.makeMove(move(7, 4, 5, 4));
+        board.makeMove(move(4, 5, 5, 4));
+        assertEquals(board.simulationBoard().getZobristKey(), board.getZobristKey(),
+                "incremental key differs from a key built from scratch");
+
+        board.unmakeMove();
+        board.unmakeMove();
+        board.unmakeMove();
+        assertEquals(start, board.getZobristKey(), "unmakeMove did not restore the key");
+    }
+}